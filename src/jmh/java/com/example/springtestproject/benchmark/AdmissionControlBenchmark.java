@@ -0,0 +1,137 @@
+package com.example.springtestproject.benchmark;
+
+import com.example.springtestproject.model.Employee;
+import com.example.springtestproject.service.EmployeeService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+//Overload test for admission control: 256 clients, one per thread, against 10 connections with the filter off and on.
+//Clients honour Retry-After. The score counts every response, the goodput (200s per second) and the 429/503
+//rejections are printed per iteration; past saturation goodput should hold with the filter on.
+//Vary the overload with -t, e.g. -Djmh.args="AdmissionControlBenchmark -t 64"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(256)
+@Fork(1)
+public class AdmissionControlBenchmark {
+    private static final int ROWS = 10000;
+
+    private static final String CLIENT_HEADER = "X-Client-Id";
+
+    @Param({"false", "true"})
+    private boolean admission;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient httpClient;
+
+    private String baseUrl;
+
+    private long firstId;
+
+    private long iterationStart;
+
+    private final LongAdder ok = new LongAdder();
+
+    private final LongAdder rateLimited = new LongAdder();
+
+    private final LongAdder saturated = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    @State(Scope.Thread)
+    public static class Client {
+        private final String id = UUID.randomUUID().toString();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkApplication.start(WebApplicationType.SERVLET,
+                "--server.port=0",
+                //the mysql-tuned profile's timeout: without admission control requests fail once they wait longer
+                "--spring.datasource.hikari.connection-timeout=2000",
+                "--employees.admission.enabled=" + admission,
+                "--employees.admission.rate-limit.enabled=true",
+                "--employees.admission.rate-limit.client-header=" + CLIENT_HEADER);
+        List<Employee> saved = context.getBean(EmployeeService.class)
+                .saveAllEmployees(BenchmarkApplication.employees("admission", 0, ROWS));
+        firstId = saved.get(0).getId();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/api/employees";
+        httpClient = HttpClient.newHttpClient();
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        ok.reset();
+        rateLimited.reset();
+        saturated.reset();
+        failed.reset();
+        iterationStart = System.nanoTime();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printGoodput() {
+        double seconds = (System.nanoTime() - iterationStart) / 1e9;
+        Gauge limit = context.getBean(MeterRegistry.class).find("employees.admission.limit").gauge();
+        System.out.printf("%n  goodput %.0f ops/s, rejected %.0f ops/s with 429, %.0f ops/s with 503, failed %.0f ops/s, concurrency limit %s%n",
+                ok.sum() / seconds, rateLimited.sum() / seconds, saturated.sum() / seconds, failed.sum() / seconds,
+                limit == null ? "off" : String.format("%.0f", limit.value()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getEmployeesPage(Client client) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "?limit=100&after="
+                        + (firstId + ThreadLocalRandom.current().nextInt(ROWS))))
+                .header(CLIENT_HEADER, client.id)
+                .GET()
+                .build();
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        int status = response.statusCode();
+        (status == 200 ? ok : status == 429 ? rateLimited : status == 503 ? saturated : failed).increment();
+        //a well-behaved client backs off for Retry-After instead of retrying straight away
+        Optional<String> retryAfter = response.headers().firstValue(HttpHeaders.RETRY_AFTER);
+        if(retryAfter.isPresent()){
+            Thread.sleep(TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.get())));
+        }
+        return status;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.springtestproject.benchmark;
+
+import com.example.springtestproject.SpringTestProjectApplication;
+import com.example.springtestproject.model.Employee;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    //boots the application against a fresh embedded H2 database in MySQL mode, extra args override the defaults
+    static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark-" + System.nanoTime()
+                        + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--employees.stream.fetch-size=1000",
+                "--logging.level.root=WARN"));
+        args.addAll(List.of(extraArgs));
+        return new SpringApplicationBuilder(SpringTestProjectApplication.class)
+                .web(webApplicationType)
+                .run(args.toArray(String[]::new));
+    }
+
+    static ConfigurableApplicationContext start(String... extraArgs) {
+        return start(WebApplicationType.NONE, extraArgs);
+    }
+
+    static List<Employee> employees(String prefix, long from, int count) {
+        List<Employee> employees = new ArrayList<>(count);
+        for(long i = from; i < from + count; i++){
+            employees.add(Employee.builder()
+                    .firstName("First" + i)
+                    .lastName("Last" + i)
+                    .email(prefix + i + "@mail.ru")
+                    .build());
+        }
+        return employees;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.springtestproject.benchmark;
+
+import com.example.springtestproject.model.EmployeeFileFormat;
+import com.example.springtestproject.service.EmployeeExportService;
+import com.example.springtestproject.service.EmployeeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+//one full table export per operation; run with -prof gc to compare allocation per export against the list based path
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class EmployeeExportBenchmark {
+    private static final int BATCH = 10_000;
+
+    @Param({"100000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeExportService employeeExportService;
+
+    private EmployeeService employeeService;
+
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkApplication.start();
+        employeeExportService = context.getBean(EmployeeExportService.class);
+        employeeService = context.getBean(EmployeeService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        //plain JDBC batches, seeding a million rows through JPA would dominate the trial
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        for(int from = 0; from < rows; from += BATCH){
+            List<Object[]> batch = new ArrayList<>(BATCH);
+            for(long i = from; i < Math.min(from + BATCH, rows); i++){
+                batch.add(new Object[]{i + 1, "First" + i, "Last" + i, "export" + i + "@mail.ru"});
+            }
+            jdbcTemplate.batchUpdate("insert into employees (id, first_name, last_name, email, version) values (?, ?, ?, ?, 0)", batch);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long exportNdjson() throws IOException {
+        return employeeExportService.exportEmployees(OutputStream.nullOutputStream(), EmployeeFileFormat.NDJSON);
+    }
+
+    @Benchmark
+    public long exportCsv() throws IOException {
+        return employeeExportService.exportEmployees(OutputStream.nullOutputStream(), EmployeeFileFormat.CSV);
+    }
+
+    @Benchmark
+    public long exportNdjsonGzip() throws IOException {
+        try (GZIPOutputStream output = new GZIPOutputStream(OutputStream.nullOutputStream(), 64 * 1024)) {
+            return employeeExportService.exportEmployees(output, EmployeeFileFormat.NDJSON);
+        }
+    }
+
+    //what GET /api/employees does: every row becomes a managed entity before one JSON array is written
+    @Benchmark
+    public int getAllEmployeesAsJsonArray() throws IOException {
+        List<?> employees = employeeService.getAllEmployee();
+        objectMapper.writeValue(OutputStream.nullOutputStream(), employees);
+        return employees.size();
+    }
+}
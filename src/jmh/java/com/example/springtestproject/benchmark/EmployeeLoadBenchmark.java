@@ -0,0 +1,112 @@
+package com.example.springtestproject.benchmark;
+
+import com.example.springtestproject.model.Employee;
+import com.example.springtestproject.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+//HTTP load test, SampleTime reports p50/p90/p99/p99.9 per request mode; the virtual mode needs Java 21, below it
+//the application refuses to start with the virtual-threads profile
+//256 clients overload both the 200 Tomcat threads and the 10 connections: the *Async variants shed load with 503
+//(printed per trial, SampleTime has no room for counters) where the blocking ones queue for a connection
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(256)
+@Fork(1)
+public class EmployeeLoadBenchmark {
+    private static final int ROWS = 10000;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient httpClient;
+
+    private String baseUrl;
+
+    private long firstId;
+
+    private final LongAdder answered = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkApplication.start(WebApplicationType.SERVLET,
+                "--server.port=0",
+                "--spring.profiles.active=" + ("virtual".equals(threads) ? "virtual-threads" : "default"));
+        List<Employee> saved = context.getBean(EmployeeService.class)
+                .saveAllEmployees(BenchmarkApplication.employees("load", 0, ROWS));
+        firstId = saved.get(0).getId();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/api/employees";
+        httpClient = HttpClient.newHttpClient();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if(answered.sum() + rejected.sum() > 0){
+            System.out.printf("async responses: %d answered, %d rejected with 503%n", answered.sum(), rejected.sum());
+        }
+        context.close();
+    }
+
+    @Benchmark
+    public int getEmployeesPage() throws IOException, InterruptedException {
+        return get("?limit=100&after=" + (firstId + ThreadLocalRandom.current().nextInt(ROWS)));
+    }
+
+    @Benchmark
+    public int searchEmployeesByName() throws IOException, InterruptedException {
+        return get("/search?lastName=Last" + ThreadLocalRandom.current().nextInt(100));
+    }
+
+    @Benchmark
+    public int getEmployeesPageAsync() throws IOException, InterruptedException {
+        return count(get("/async?limit=100&after=" + (firstId + ThreadLocalRandom.current().nextInt(ROWS))));
+    }
+
+    @Benchmark
+    public int searchEmployeesByNameAsync() throws IOException, InterruptedException {
+        return count(get("/async/search?lastName=Last" + ThreadLocalRandom.current().nextInt(100)));
+    }
+
+    private int count(int status) {
+        (status == 503 ? rejected : answered).increment();
+        return status;
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.springtestproject.benchmark;
+
+import com.example.springtestproject.model.Employee;
+import com.example.springtestproject.model.EmployeeView;
+import com.example.springtestproject.repository.EmployeeRepository;
+import com.example.springtestproject.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//entity vs EmployeeView reads of the same rows; run with -prof gc and compare gc.alloc.rate.norm (bytes per read)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeProjectionBenchmark {
+    private static final int BATCH = 500;
+
+    private static final int PAGE = 100;
+
+    @Param("10000")
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeRepository employeeRepository;
+
+    private TransactionTemplate transactionTemplate;
+
+    private long firstId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkApplication.start();
+        EmployeeService employeeService = context.getBean(EmployeeService.class);
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        for(int from = 0; from < rows; from += BATCH){
+            List<Employee> saved = employeeService.saveAllEmployees(
+                    BenchmarkApplication.employees("projection", from, Math.min(BATCH, rows - from)));
+            if(from == 0){
+                firstId = saved.get(0).getId();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Employee> pageEntities() {
+        return employeeRepository.findByIdGreaterThanOrderByIdAsc(randomAfter(), Limit.of(PAGE), Employee.class);
+    }
+
+    //entities loaded in a read-write transaction keep a snapshot each and are dirty checked on commit
+    @Benchmark
+    public List<Employee> pageEntitiesReadWrite() {
+        return transactionTemplate.execute(status ->
+                employeeRepository.findByIdGreaterThanOrderByIdAsc(randomAfter(), Limit.of(PAGE), Employee.class));
+    }
+
+    @Benchmark
+    public List<EmployeeView> pageViews() {
+        return employeeRepository.findByIdGreaterThanOrderByIdAsc(randomAfter(), Limit.of(PAGE), EmployeeView.class);
+    }
+
+    @Benchmark
+    public List<Employee> allEntities() {
+        return employeeRepository.findAll();
+    }
+
+    @Benchmark
+    public List<EmployeeView> allViews() {
+        return employeeRepository.findAllViews();
+    }
+
+    private long randomAfter() {
+        return firstId + ThreadLocalRandom.current().nextInt(rows - PAGE);
+    }
+}
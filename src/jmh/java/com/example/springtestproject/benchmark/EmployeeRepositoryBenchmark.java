@@ -0,0 +1,92 @@
+package com.example.springtestproject.benchmark;
+
+import com.example.springtestproject.model.Employee;
+import com.example.springtestproject.model.EmployeeSummary;
+import com.example.springtestproject.model.EmployeeView;
+import com.example.springtestproject.repository.EmployeeRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeRepositoryBenchmark {
+
+    @Param("10000")
+    private int rows;
+
+    //l2cache serves findById from the second-level cache and findByEmail/searchByName from the query cache
+    @Param({"default", "l2cache"})
+    private String profile;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeRepository employeeRepository;
+
+    private long firstId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkApplication.start("--spring.profiles.active=" + profile);
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        firstId = employeeRepository.saveAll(BenchmarkApplication.employees("seed", 0, rows)).get(0).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Employee> findById() {
+        return employeeRepository.findById(firstId + randomRow());
+    }
+
+    @Benchmark
+    public Optional<Employee> findByEmail() {
+        return employeeRepository.findByEmail("seed" + randomRow() + "@mail.ru");
+    }
+
+    //native projection through the composite index, full names as prefixes
+    @Benchmark
+    public List<EmployeeSummary> searchByName() {
+        int row = randomRow();
+        return employeeRepository.searchByName("Last" + row, "First" + row, PageRequest.of(0, 20));
+    }
+
+    @Benchmark
+    public List<EmployeeSummary> searchByLastNamePrefix() {
+        return employeeRepository.searchByName("Last" + randomRow() / 100, "", PageRequest.of(0, 20));
+    }
+
+    @Benchmark
+    public List<EmployeeView> findKeysetPage() {
+        return employeeRepository.findByIdGreaterThanOrderByIdAsc(firstId + randomRow(), Limit.of(100), EmployeeView.class);
+    }
+
+    private int randomRow() {
+        return ThreadLocalRandom.current().nextInt(rows);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.springtestproject.benchmark;
+
+import com.example.springtestproject.model.EmployeeView;
+import com.example.springtestproject.service.EmployeeSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//search latency over a million employees built from common names; setup prints the load time and the heap the index holds
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx3g")
+public class EmployeeSearchBenchmark {
+    private static final String[] FIRST_NAMES = {"John", "Johnny", "Anna", "Maria", "Philip", "Ivan", "Olga", "James",
+            "Robert", "Mary", "Patricia", "Jennifer", "Michael", "Linda", "David", "Elena", "Sergey", "Natalia",
+            "William", "Elizabeth", "Dmitry", "Tatiana", "Thomas", "Sarah", "Alexey", "Irina", "Daniel", "Karen",
+            "Andrey", "Svetlana", "Mark", "Nancy", "Pavel", "Ekaterina", "Steven", "Lisa", "Nikolai", "Anastasia",
+            "Paul", "Betty", "Mikhail", "Yulia", "Kevin", "Sandra", "Artem", "Daria", "Brian", "Ashley",
+            "Vladimir", "Sofia"};
+
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller",
+            "Davis", "Rodriguez", "Martinez", "Ivanov", "Ivanova", "Smirnov", "Smirnova", "Kuznetsov", "Kuznetsova",
+            "Popov", "Popova", "Vasiliev", "Petrov", "Petrova", "Sokolov", "Mikhailov", "Novikov", "Fedorov",
+            "Dubrovskiy", "Morozov", "Volkov", "Alekseev", "Lebedev", "Semenov", "Egorov", "Pavlov", "Kozlov",
+            "Stepanov", "Nikolaev", "Orlov", "Andreev", "Makarov", "Nikitin", "Wilson", "Anderson", "Thomas",
+            "Taylor", "Moore", "Jackson", "Martin", "Lee", "Thompson", "White", "Harris", "Clark", "Lewis",
+            "Robinson", "Walker", "Young", "Allen", "King", "Wright", "Scott", "Torres", "Nguyen", "Hill",
+            "Flores", "Green", "Adams", "Nelson", "Baker", "Hall", "Rivera", "Campbell", "Mitchell", "Carter",
+            "Roberts", "Gomez", "Phillips", "Evans", "Turner", "Diaz", "Parker", "Cruz", "Edwards", "Collins",
+            "Reyes", "Stewart", "Morris", "Morales", "Murphy", "Cook", "Rogers", "Gutierrez", "Ortiz", "Morgan",
+            "Cooper", "Peterson", "Bailey", "Reed", "Kelly", "Howard", "Ramos"};
+
+    private static final String[] DOMAINS = {"mail.ru", "gmail.com", "yandex.ru", "outlook.com", "example.com"};
+
+    @Param({"1000000"})
+    private int employees;
+
+    //a common prefix, a common surname prefix, two words, a whole surname, a unique email and a miss
+    @Param({"jo", "smi", "john smi", "ivanova", "petrov.123456", "xyzzy"})
+    private String query;
+
+    private EmployeeSearchIndex index;
+
+    private final AtomicLong version = new AtomicLong();
+
+    @Setup
+    public void setup() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long heapBefore = usedHeap(memory);
+        long start = System.nanoTime();
+        index = new EmployeeSearchIndex(2000);
+        index.load(rows -> {
+            for(int i = 1; i <= employees; i++){
+                rows.accept(employee(i, 0));
+            }
+        });
+        long loadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        long heapAfter = usedHeap(memory);
+        System.out.printf("%nindex of %d employees loaded in %d ms: %d grams, heap %d MB, estimated %d MB%n",
+                index.size(), loadMillis, index.grams(), (heapAfter - heapBefore) >> 20, index.estimatedBytes() >> 20);
+    }
+
+    @Benchmark
+    public List<EmployeeView> search() {
+        return index.search(query, 10);
+    }
+
+    //a new version of a random employee: tombstone, re-index and the amortized compaction
+    @Benchmark
+    public int update() {
+        index.put(employee(ThreadLocalRandom.current().nextInt(employees) + 1, version.incrementAndGet()));
+        return index.size();
+    }
+
+    //searches while another thread keeps updating, so compactions run during the measurement
+    @Benchmark
+    @Group("mixed")
+    public List<EmployeeView> searchWhileUpdating() {
+        return index.search(query, 10);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    public int updateWhileSearching() {
+        return update();
+    }
+
+    private static EmployeeView employee(int id, long version) {
+        String firstName = FIRST_NAMES[id % FIRST_NAMES.length];
+        String lastName = LAST_NAMES[(id / FIRST_NAMES.length) % LAST_NAMES.length];
+        String email = lastName.toLowerCase() + "." + id + "@" + DOMAINS[id % DOMAINS.length];
+        return new EmployeeView(id, firstName, lastName, email, version);
+    }
+
+    private static long usedHeap(MemoryMXBean memory) {
+        for(int i = 0; i < 3; i++){
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
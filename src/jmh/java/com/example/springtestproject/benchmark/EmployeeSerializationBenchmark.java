@@ -0,0 +1,107 @@
+package com.example.springtestproject.benchmark;
+
+import com.example.springtestproject.model.Employee;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+//serialization CPU per representation, with and without Blackbird; the payloadBytes/gzipBytes counters give the wire size
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeeSerializationBenchmark {
+    private static final TypeReference<List<Employee>> EMPLOYEE_LIST = new TypeReference<>() {
+    };
+
+    @Param({"10", "1000"})
+    private int size;
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    @Param({"false", "true"})
+    private boolean blackbird;
+
+    private ObjectMapper objectMapper;
+
+    private List<Employee> employees;
+
+    private byte[] payload;
+
+    private int gzipSize;
+
+    //bytes of one serialized list; JMH sums EVENTS counters over the measurement iterations, divide by their count
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class WireSize {
+        public long payloadBytes;
+
+        public long gzipBytes;
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        //same defaults as the ObjectMapper Spring Boot configures for the controllers
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json().factory(factory());
+        if(blackbird){
+            builder.modulesToInstall(new BlackbirdModule());
+        }
+        objectMapper = builder.build();
+        employees = BenchmarkApplication.employees("serialize", 0, size);
+        for(int i = 0; i < size; i++){
+            employees.get(i).setId(i + 1);
+        }
+        payload = objectMapper.writeValueAsBytes(employees);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(payload);
+        }
+        gzipSize = compressed.size();
+    }
+
+    @Benchmark
+    public byte[] serializeList(WireSize wireSize) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(employees);
+        wireSize.payloadBytes = bytes.length;
+        wireSize.gzipBytes = gzipSize;
+        return bytes;
+    }
+
+    @Benchmark
+    public List<Employee> deserializeList() throws IOException {
+        return objectMapper.readValue(payload, EMPLOYEE_LIST);
+    }
+
+    private JsonFactory factory() {
+        return switch (format) {
+            case "smile" -> new SmileFactory();
+            case "cbor" -> new CBORFactory();
+            default -> new JsonFactory();
+        };
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.springtestproject.benchmark;
+
+import com.example.springtestproject.model.Employee;
+import com.example.springtestproject.model.EmployeePage;
+import com.example.springtestproject.model.EmployeePatch;
+import com.example.springtestproject.repository.EmployeeRepository;
+import com.example.springtestproject.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//throughput is reported per employee, so the single-row and bulk create paths are directly comparable
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeServiceBenchmark {
+    private static final int BATCH = 500;
+
+    @Param("10000")
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeService employeeService;
+
+    private EmployeeRepository employeeRepository;
+
+    private long[] ids;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkApplication.start();
+        employeeService = context.getBean(EmployeeService.class);
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        ids = new long[rows];
+        for(int from = 0; from < rows; from += BATCH){
+            List<Employee> saved = employeeService.saveAllEmployees(
+                    BenchmarkApplication.employees("seed", from, Math.min(BATCH, rows - from)));
+            for(int i = 0; i < saved.size(); i++){
+                ids[from + i] = saved.get(i).getId();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Employee> getEmployeeById() {
+        return employeeService.getEmployeeById(randomId());
+    }
+
+    @Benchmark
+    public EmployeePage getEmployeesPage() {
+        return employeeService.getEmployeesPage(randomId(), 100);
+    }
+
+    @Benchmark
+    public Employee saveEmployee() {
+        return employeeService.saveEmployee(nextEmployees(1).get(0));
+    }
+
+    //the findByEmail + save path saveEmployee used before the unique index took over duplicate detection
+    @Benchmark
+    public Employee saveEmployeeCheckThenInsert() {
+        Employee employee = nextEmployees(1).get(0);
+        if(employeeRepository.findByEmail(employee.getEmail()).isPresent()){
+            throw new IllegalStateException("Employee already exists with given email" + employee.getEmail());
+        }
+        return employeeRepository.save(employee);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public Employee saveEmployeesSingleRow() {
+        Employee last = null;
+        for(Employee employee : nextEmployees(BATCH)){
+            last = employeeService.saveEmployee(employee);
+        }
+        return last;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<Employee> saveEmployeesBulk() {
+        return employeeService.saveAllEmployees(nextEmployees(BATCH));
+    }
+
+    //the PUT handler's path: read, copy every field, save (merge re-reads the row and updates all columns)
+    @Benchmark
+    public Employee updateEmployee() {
+        Employee employee = employeeService.getEmployeeById(randomId()).get();
+        employee.setFirstName("First" + sequence.incrementAndGet());
+        return employeeService.updateEmployee(employee);
+    }
+
+    @Benchmark
+    public Optional<Employee> patchEmployee() {
+        return employeeService.patchEmployee(randomId(), EmployeePatch.builder()
+                .firstName("First" + sequence.incrementAndGet())
+                .build());
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    private List<Employee> nextEmployees(int count) {
+        return BenchmarkApplication.employees("bench", sequence.getAndAdd(count), count);
+    }
+}
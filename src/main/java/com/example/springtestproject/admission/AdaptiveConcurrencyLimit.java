@@ -0,0 +1,105 @@
+package com.example.springtestproject.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that follows the observed latency, AIMD style: the limit grows by one per round trip while
+ * requests complete about as fast as without load and is cut by the backoff ratio once the recent latency
+ * exceeds that no-load latency by the tolerance, i.e. once requests start queueing behind the database.
+ * At most one cut per round trip: requests that started before the last cut already ran under the old limit.
+ */
+public class AdaptiveConcurrencyLimit {
+    //weight of a sample in the recent latency (about the last 10 requests) and of a slower sample in the no-load
+    //latency (about the last 500)
+    private static final double SHORT_WEIGHT = 0.1;
+    private static final double NO_LOAD_WEIGHT = 0.002;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double tolerance;
+
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    //written under the monitor, read without it by tryAcquire
+    private volatile double limit;
+
+    private double shortLatencyNanos = Double.NaN;
+
+    private double noLoadLatencyNanos = Double.NaN;
+
+    private long lastCutNanos;
+
+    private boolean cut;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double backoffRatio) {
+        if(minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit){
+            throw new IllegalArgumentException("Expected 1 <= min-limit <= initial-limit <= max-limit");
+        }
+        if(tolerance <= 1 || backoffRatio <= 0 || backoffRatio >= 1){
+            throw new IllegalArgumentException("Expected tolerance > 1 and 0 < backoff-ratio < 1");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+    }
+
+    //false when the limit is reached, the caller must then reject instead of waiting
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if(current >= (int) limit){
+                return false;
+            }
+        } while(!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    //releases without a latency sample, for requests whose duration says nothing about load (streams, failures)
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    //releases and adapts the limit to the request's latency, both times from System.nanoTime()
+    public void release(long startNanos, long endNanos) {
+        int inFlightBeforeRelease = inFlight.getAndDecrement();
+        onSample(startNanos, endNanos, inFlightBeforeRelease);
+    }
+
+    private synchronized void onSample(long startNanos, long endNanos, int inFlightBeforeRelease) {
+        long latency = endNanos - startNanos;
+        if(Double.isNaN(noLoadLatencyNanos)){
+            shortLatencyNanos = latency;
+            noLoadLatencyNanos = latency;
+            return;
+        }
+        shortLatencyNanos += (latency - shortLatencyNanos) * SHORT_WEIGHT;
+        //follows faster requests quickly and slower ones slowly, so it stays near the latency without queueing
+        //instead of drifting up with a queue that builds gradually
+        noLoadLatencyNanos += (latency - noLoadLatencyNanos) * (latency < noLoadLatencyNanos ? SHORT_WEIGHT : NO_LOAD_WEIGHT);
+        if(shortLatencyNanos > noLoadLatencyNanos * tolerance){
+            if(!cut || startNanos - lastCutNanos > 0){
+                limit = Math.max(minLimit, limit * backoffRatio);
+                lastCutNanos = endNanos;
+                cut = true;
+            }
+        } else if(inFlightBeforeRelease * 2 >= limit){
+            //only grows while at least half of the limit is in use, an idle service keeps its limit
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
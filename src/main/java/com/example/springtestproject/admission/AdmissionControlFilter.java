@@ -0,0 +1,149 @@
+package com.example.springtestproject.admission;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control in front of the employee API: a client over its rate gets 429, and once the adaptive
+ * concurrency limit is reached further requests get 503, both straight away and with Retry-After, instead of
+ * queueing on Tomcat threads until they time out against the connection pool.
+ * Rate limiting is optional, without a rate limiter only the concurrency limit applies. Clients are told apart by
+ * the client header when it is set and present, by remote address otherwise.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private final TokenBucketRateLimiter rateLimiter;
+
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+
+    private final String clientHeader;
+
+    private final LongAdder rateLimited = new LongAdder();
+
+    private final LongAdder concurrencyLimited = new LongAdder();
+
+    //rateLimiter may be null
+    public AdmissionControlFilter(TokenBucketRateLimiter rateLimiter, AdaptiveConcurrencyLimit concurrencyLimit,
+                                  String clientHeader, MeterRegistry registry) {
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimit = concurrencyLimit;
+        this.clientHeader = clientHeader;
+        bindRejections(registry, rateLimited, "rate-limit");
+        bindRejections(registry, concurrencyLimited, "concurrency-limit");
+        Gauge.builder("employees.admission.limit", concurrencyLimit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Current adaptive concurrency limit")
+                .register(registry);
+        Gauge.builder("employees.admission.in.flight", concurrencyLimit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Admitted requests not completed yet")
+                .register(registry);
+        if(rateLimiter != null){
+            Gauge.builder("employees.admission.clients", rateLimiter, TokenBucketRateLimiter::estimatedClients)
+                    .description("Clients with a rate limit bucket that has not refilled yet")
+                    .register(registry);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long waitNanos = rateLimiter == null ? 0 : rateLimiter.tryAcquire(clientOf(request));
+        if(waitNanos > 0){
+            rateLimited.increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1,
+                    "Too many requests from this client, retry later");
+            return;
+        }
+        if(!concurrencyLimit.tryAcquire()){
+            concurrencyLimited.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1, "Employee service is saturated, retry later");
+            return;
+        }
+        long start = System.nanoTime();
+        boolean sampled = false;
+        try {
+            filterChain.doFilter(request, response);
+            sampled = true;
+        } finally {
+            if(request.isAsyncStarted()){
+                //streams and async requests hold their slot until they complete, but their duration is no load signal
+                request.getAsyncContext().addListener(new ReleaseOnCompletion());
+            } else if(sampled){
+                concurrencyLimit.release(start, System.nanoTime());
+            } else {
+                concurrencyLimit.release();
+            }
+        }
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        if(StringUtils.hasText(clientHeader)){
+            String client = request.getHeader(clientHeader);
+            if(StringUtils.hasText(client)){
+                return client;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write(message);
+    }
+
+    private static void bindRejections(MeterRegistry registry, LongAdder rejections, String reason) {
+        FunctionCounter.builder("employees.admission.rejected", rejections, LongAdder::sum)
+                .description("Requests to the employee API rejected before reaching the controller")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    private class ReleaseOnCompletion implements AsyncListener {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            //a new async cycle drops the registered listeners, stay registered until the request really completes
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if(released.compareAndSet(false, true)){
+                concurrencyLimit.release();
+            }
+        }
+    }
+}
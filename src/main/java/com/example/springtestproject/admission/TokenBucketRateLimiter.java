@@ -0,0 +1,59 @@
+package com.example.springtestproject.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client token buckets. A bucket is kept as a single long, the time at which it will be full again
+ * (GCRA), and taking a token is one compare-and-set on it, so clients never wait on a lock.
+ * Buckets of idle clients are evicted once they have refilled, a missing bucket is the same as a full one.
+ */
+public class TokenBucketRateLimiter {
+    private final long tokenNanos;
+
+    //how far ahead of now a bucket's time may run: the burst minus the token being taken
+    private final long burstNanos;
+
+    private final Ticker ticker;
+
+    private final Cache<String, AtomicLong> buckets;
+
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst, long maximumClients, Ticker ticker) {
+        if(permitsPerSecond <= 0 || burst < 1){
+            throw new IllegalArgumentException("Expected permits-per-second > 0 and burst >= 1");
+        }
+        this.tokenNanos = Math.max(1, (long) (Duration.ofSeconds(1).toNanos() / permitsPerSecond));
+        this.burstNanos = tokenNanos * (burst - 1);
+        this.ticker = ticker;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumClients)
+                .expireAfterAccess(Duration.ofNanos(tokenNanos * burst))
+                .ticker(ticker)
+                .build();
+    }
+
+    //0 when the client got a token, otherwise the nanoseconds until its next token
+    public long tryAcquire(String client) {
+        long now = ticker.read();
+        AtomicLong bucket = buckets.get(client, key -> new AtomicLong(now));
+        while(true){
+            long full = bucket.get();
+            long start = full - now > 0 ? full : now;
+            long wait = start - now - burstNanos;
+            if(wait > 0){
+                return wait;
+            }
+            if(bucket.compareAndSet(full, start + tokenNanos)){
+                return 0;
+            }
+        }
+    }
+
+    public long estimatedClients() {
+        return buckets.estimatedSize();
+    }
+}
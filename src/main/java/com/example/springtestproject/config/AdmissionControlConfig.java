@@ -0,0 +1,46 @@
+package com.example.springtestproject.config;
+
+import com.example.springtestproject.admission.AdaptiveConcurrencyLimit;
+import com.example.springtestproject.admission.AdmissionControlFilter;
+import com.example.springtestproject.admission.TokenBucketRateLimiter;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration(proxyBeanMethods = false)
+public class AdmissionControlConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "employees.admission.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            MeterRegistry meterRegistry,
+            @Value("${employees.admission.rate-limit.enabled:false}") boolean rateLimitEnabled,
+            @Value("${employees.admission.rate-limit.permits-per-second:100}") double permitsPerSecond,
+            @Value("${employees.admission.rate-limit.burst:200}") int burst,
+            @Value("${employees.admission.rate-limit.maximum-clients:100000}") long maximumClients,
+            @Value("${employees.admission.rate-limit.client-header:}") String clientHeader,
+            @Value("${employees.admission.concurrency.initial-limit:20}") int initialLimit,
+            @Value("${employees.admission.concurrency.min-limit:#{null}}") Integer minLimit,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${employees.admission.concurrency.max-limit:200}") int maxLimit,
+            @Value("${employees.admission.concurrency.tolerance:2.0}") double tolerance,
+            @Value("${employees.admission.concurrency.backoff-ratio:0.9}") double backoffRatio) {
+        //the database runs pool size queries in parallel anyway, but the floor may not start above the limit
+        int lowestLimit = minLimit != null ? minLimit : Math.min(poolSize, initialLimit);
+        //opt-in: behind a proxy every caller has the proxy's address, so without a client header all would share one bucket
+        AdmissionControlFilter filter = new AdmissionControlFilter(rateLimitEnabled
+                ? new TokenBucketRateLimiter(permitsPerSecond, burst, maximumClients, Ticker.systemTicker()) : null,
+                new AdaptiveConcurrencyLimit(initialLimit, lowestLimit, maxLimit, tolerance, backoffRatio),
+                clientHeader, meterRegistry);
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/employees", "/api/employees/*");
+        //inside the http.server.requests observation so rejections are counted there too, ahead of everything else
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.springtestproject.config;
+
+import com.example.springtestproject.datasource.ReadYourWrites;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration(proxyBeanMethods = false)
+public class AsyncConfig {
+    public static final String EMPLOYEE_EXECUTOR = "employeeExecutor";
+
+    //runs the blocking JPA calls behind /api/employees/async. One thread per pooled connection, so tasks never wait
+    //inside Hikari; once the bounded queue is full submissions are rejected and answered with 503 (backpressure).
+    //Exposed as executor.* metrics with name=employeeExecutor
+    @Bean(name = EMPLOYEE_EXECUTOR)
+    public ThreadPoolTaskExecutor employeeExecutor(@Value("${employees.async.pool-size:${spring.datasource.hikari.maximum-pool-size:10}}") int poolSize,
+                                                   @Value("${employees.async.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("employee-db-");
+        //keeps read-your-writes routing for the client that submitted the task
+        executor.setTaskDecorator(ReadYourWrites.TASK_DECORATOR);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    //Boot only auto-configures its executor when no other Executor bean exists, keep it for MVC async requests
+    //(/stream, /export, the async controller's dispatch) configured from spring.task.execution.*
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.springtestproject.config;
+
+import com.example.springtestproject.datasource.ConnectionPoolWarmup;
+import com.example.springtestproject.datasource.ConnectionTracker;
+import com.example.springtestproject.datasource.PoolSaturationMonitor;
+import com.example.springtestproject.datasource.ReplicaRoutingDataSource;
+import com.example.springtestproject.repository.EmployeeRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration(proxyBeanMethods = false)
+public class ConnectionPoolConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "employees.datasource.warmup.enabled", havingValue = "true", matchIfMissing = true)
+    public ConnectionPoolWarmup connectionPoolWarmup(ObjectProvider<HikariDataSource> pools,
+                                                     ObjectProvider<ReplicaRoutingDataSource> replicaRouting,
+                                                     EmployeeRepository employeeRepository,
+                                                     @Value("${employees.datasource.warmup.query-rounds:3}") int queryRounds,
+                                                     @Value("${employees.datasource.warmup.timeout:5s}") Duration timeout) {
+        return new ConnectionPoolWarmup(hikariPools(pools, replicaRouting), employeeRepository, queryRounds, timeout);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "employees.datasource.diagnostics.enabled", havingValue = "true")
+    //opt-in, it proxies every pool and connection and walks the stack on each getConnection;
+    //static, so the pools created by other configurations are post-processed too
+    public static ConnectionTracker connectionTracker() {
+        return new ConnectionTracker();
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "employees.datasource.diagnostics.enabled", havingValue = "true")
+    public ThreadPoolTaskScheduler poolSaturationScheduler(ObjectProvider<HikariDataSource> pools,
+                                                           ObjectProvider<ReplicaRoutingDataSource> replicaRouting,
+                                                           ConnectionTracker connectionTracker,
+                                                           @Value("${employees.datasource.diagnostics.interval:1s}") Duration interval,
+                                                           @Value("${employees.datasource.diagnostics.quiet-period:30s}") Duration quietPeriod) {
+        PoolSaturationMonitor monitor = new PoolSaturationMonitor(hikariPools(pools, replicaRouting), connectionTracker, quietPeriod);
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("pool-saturation-");
+        scheduler.setDaemon(true);
+        scheduler.initialize();
+        scheduler.scheduleWithFixedDelay(monitor, interval);
+        return scheduler;
+    }
+
+    //the application's pools plus the replica pools, which are not beans
+    private static List<HikariDataSource> hikariPools(ObjectProvider<HikariDataSource> pools,
+                                                      ObjectProvider<ReplicaRoutingDataSource> replicaRouting) {
+        List<HikariDataSource> hikariPools = new ArrayList<>(pools.orderedStream().toList());
+        replicaRouting.ifAvailable(routing -> routing.getReplicas().stream()
+                .map(ReplicaRoutingDataSource.Replica::getDataSource)
+                .filter(HikariDataSource.class::isInstance)
+                .map(HikariDataSource.class::cast)
+                .forEach(hikariPools::add));
+        return hikariPools;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.springtestproject.config;
+
+import com.example.springtestproject.datasource.ConnectionTracker;
+import com.example.springtestproject.datasource.ReadYourWritesFilter;
+import com.example.springtestproject.datasource.ReplicaRoutingDataSource;
+import com.example.springtestproject.datasource.ReplicaRoutingDataSource.Replica;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+//only active when replicas are configured, otherwise Boot's single datasource is used unchanged
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty("employees.datasource.replica.urls")
+public class DataSourceRoutingConfig {
+
+    //the primary keeps Boot's spring.datasource.* and spring.datasource.hikari.* settings and hikaricp metrics
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties properties,
+                                                             ObjectProvider<ConnectionTracker> connectionTracker,
+                                                             @Value("${employees.datasource.replica.urls}") List<String> urls,
+                                                             @Value("${employees.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                                             @Value("${employees.datasource.replica.password:${spring.datasource.password:}}") String password,
+                                                             @Value("${employees.datasource.replica.maximum-pool-size:${spring.datasource.hikari.maximum-pool-size:10}}") int poolSize,
+                                                             @Value("${employees.datasource.replica.max-lag:5s}") Duration maxLag,
+                                                             @Value("${employees.datasource.replica.lag-query:}") String lagQuery) {
+        //replica pools are not beans, so the connection tracker does not wrap them on its own
+        ConnectionTracker tracker = connectionTracker.getIfAvailable();
+        List<Replica> replicas = new ArrayList<>();
+        for(int i = 0; i < urls.size(); i++){
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(urls.get(i));
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            //driver tuning such as the mysql-tuned statement caches applies to replicas too
+            replica.setDataSourceProperties(primaryDataSource.getDataSourceProperties());
+            //a replica that is down at startup is marked unhealthy by the first check instead of failing the boot
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(new Replica(replica.getPoolName(), tracker == null ? replica : tracker.track(replica)));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, maxLag, lagQuery);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolTaskScheduler replicaHealthScheduler(ReplicaRoutingDataSource replicaRoutingDataSource,
+                                                          @Value("${employees.datasource.replica.check-interval:5s}") Duration interval) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("replica-health-");
+        scheduler.setDaemon(true);
+        scheduler.initialize();
+        scheduler.scheduleWithFixedDelay(replicaRoutingDataSource::checkReplicas, interval);
+        return scheduler;
+    }
+
+    //the connection is fetched lazily, after the transaction has bound its read-only flag for the router
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(@Value("${employees.datasource.read-your-writes-window:5s}") Duration window) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(new ReadYourWritesFilter(window, Clock.systemUTC()));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.springtestproject.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures time-to-first-request, which is what scale-out actually waits for: the time from JVM start until the
+ * application is ready plus the time the first request after that takes to be handled, async completion included.
+ * The idle time between readiness and the arrival of the first request is not part of it, and requests served
+ * before readiness are not counted.
+ */
+@Slf4j
+public class FirstRequestTimingFilter extends OncePerRequestFilter implements ApplicationListener<ApplicationReadyEvent> {
+    public static final String METRIC_NAME = "application.first.request.time";
+
+    private final long jvmStartMillis;
+
+    //-1 until the application is ready
+    private final AtomicLong readyMillis = new AtomicLong(-1);
+
+    //-1 until the first request completes
+    private final AtomicLong firstRequestMillis = new AtomicLong(-1);
+
+    public FirstRequestTimingFilter(MeterRegistry registry) {
+        this(registry, ManagementFactory.getRuntimeMXBean().getStartTime());
+    }
+
+    FirstRequestTimingFilter(MeterRegistry registry, long jvmStartMillis) {
+        this.jvmStartMillis = jvmStartMillis;
+        TimeGauge.builder(METRIC_NAME, firstRequestMillis, TimeUnit.MILLISECONDS,
+                        millis -> millis.get() < 0 ? Double.NaN : millis.get())
+                .description("Time from JVM start until ready plus the handling time of the first request")
+                .register(registry);
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        readyMillis.compareAndSet(-1, System.currentTimeMillis() - jvmStartMillis);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if(readyMillis.get() < 0 || firstRequestMillis.get() >= 0){
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long start = System.nanoTime();
+        //read now, the request may already be recycled when an async completion is reported
+        String requestLine = request.getMethod() + " " + request.getRequestURI();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if(request.isAsyncStarted()){
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        recordFirstRequest(requestLine, start);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                recordFirstRequest(requestLine, start);
+            }
+        }
+    }
+
+    private void recordFirstRequest(String requestLine, long startNanos) {
+        long handlingMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        long ready = readyMillis.get();
+        if(firstRequestMillis.compareAndSet(-1, ready + handlingMillis)){
+            log.info("First request {} handled in {} ms, ready {} ms after JVM start: time to first request {} ms",
+                    requestLine, handlingMillis, ready, ready + handlingMillis);
+        }
+    }
+
+    public long getFirstRequestMillis() {
+        return firstRequestMillis.get();
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.springtestproject.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfig {
+
+    //records the @Timed service methods, without it the annotations cost nothing
+    @Bean
+    @ConditionalOnProperty(name = "employees.metrics.service.enabled", havingValue = "true", matchIfMissing = true)
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    //a bean so that it hears ApplicationReadyEvent, registered once through the registration below
+    @Bean
+    public FirstRequestTimingFilter firstRequestTimingFilter(MeterRegistry meterRegistry) {
+        return new FirstRequestTimingFilter(meterRegistry);
+    }
+
+    //api requests only, the first request after readiness is otherwise usually a probe
+    @Bean
+    public FilterRegistrationBean<FirstRequestTimingFilter> firstRequestTimingFilterRegistration(FirstRequestTimingFilter firstRequestTimingFilter) {
+        FilterRegistrationBean<FirstRequestTimingFilter> registration = new FilterRegistrationBean<>(firstRequestTimingFilter);
+        registration.addUrlPatterns("/api/*");
+        //outermost, so the first request is timed until it has been fully written
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
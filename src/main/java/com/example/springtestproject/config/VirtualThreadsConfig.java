@@ -0,0 +1,19 @@
+package com.example.springtestproject.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnJava;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.context.annotation.Configuration;
+
+//Boot ignores spring.threads.virtual.enabled below Java 21, the virtual-threads profile would then run its
+//request concurrency and pool settings on platform threads, so refuse to start instead
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+@ConditionalOnJava(range = ConditionalOnJava.Range.OLDER_THAN, value = JavaVersion.TWENTY_ONE)
+public class VirtualThreadsConfig {
+
+    public VirtualThreadsConfig() {
+        throw new IllegalStateException("Expected a Java 21+ runtime for spring.threads.virtual.enabled=true, running on Java "
+                + Runtime.version().feature());
+    }
+}
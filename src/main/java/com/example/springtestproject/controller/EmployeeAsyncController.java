@@ -0,0 +1,84 @@
+package com.example.springtestproject.controller;
+
+import com.example.springtestproject.model.Employee;
+import com.example.springtestproject.model.EmployeePage;
+import com.example.springtestproject.model.EmployeePatch;
+import com.example.springtestproject.model.EmployeeView;
+import com.example.springtestproject.service.EmployeeAsyncService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+//same contract as EmployeeController, but the servlet thread is released while the database call runs
+@RestController
+@RequestMapping("/api/employees/async")
+public class EmployeeAsyncController {
+
+    @Autowired
+    private EmployeeAsyncService employeeAsyncService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public CompletableFuture<Employee> createEmployee(@RequestBody Employee employee){
+        return employeeAsyncService.saveEmployee(employee);
+    }
+
+    @GetMapping(params = "limit")
+    public CompletableFuture<EmployeePage> getEmployeesPage(@RequestParam("limit") int limit,
+                                                            @RequestParam(value = "after", defaultValue = "0") long after){
+        return employeeAsyncService.getEmployeesPage(after, limit);
+    }
+
+    @GetMapping(value = "search", params = "lastName")
+    public CompletableFuture<List<EmployeeView>> searchEmployeesByName(@RequestParam("lastName") String lastName,
+                                                                       @RequestParam(value = "firstName", defaultValue = "") String firstName,
+                                                                       @RequestParam(value = "page", defaultValue = "0") int page,
+                                                                       @RequestParam(value = "size", defaultValue = "20") int size){
+        return employeeAsyncService.searchEmployeesByName(lastName, firstName, page, size);
+    }
+
+    //the same id-version ETag as the sync endpoints, If-None-Match is checked when the result is dispatched
+    @GetMapping("{id}")
+    public CompletableFuture<ResponseEntity<Employee>> getEmployeeById(@PathVariable("id") long employeeId){
+        return employeeAsyncService.getEmployeeById(employeeId)
+                .thenApply(employee -> employee
+                        .map(EmployeeController::withETag)
+                        .orElseGet(() -> ResponseEntity.notFound().build()));
+    }
+
+    @PatchMapping("{id}")
+    public CompletableFuture<ResponseEntity<Employee>> patchEmployee(@PathVariable("id") long employeeId, @RequestBody EmployeePatch patch){
+        return employeeAsyncService.patchEmployee(employeeId, patch)
+                .thenApply(employee -> employee
+                        .map(EmployeeController::withETag)
+                        .orElseGet(() -> ResponseEntity.notFound().build()));
+    }
+
+    @DeleteMapping("{id}")
+    public CompletableFuture<ResponseEntity<Void>> deleteEmployee(@PathVariable("id") long employeeId){
+        return employeeAsyncService.deleteEmployee(employeeId)
+                .thenApply(deleted -> deleted
+                        ? ResponseEntity.noContent().<Void>build()
+                        : ResponseEntity.notFound().<Void>build());
+    }
+
+    //the executor queue is full: shed the request instead of letting it wait for a connection
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<String> handleSaturation(TaskRejectedException e){
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Employee service is saturated, retry later");
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleVersionConflict(OptimisticLockingFailureException e){
+        return new ResponseEntity<String>("Employee was modified concurrently, reload it and retry", HttpStatus.CONFLICT);
+    }
+}
@@ -1,14 +1,34 @@
 package com.example.springtestproject.controller;
 
 import com.example.springtestproject.model.Employee;
+import com.example.springtestproject.model.EmployeeFileFormat;
+import com.example.springtestproject.model.EmployeePage;
+import com.example.springtestproject.model.EmployeePatch;
+import com.example.springtestproject.model.EmployeeView;
+import com.example.springtestproject.model.ImportReport;
+import com.example.springtestproject.service.EmployeeExportService;
+import com.example.springtestproject.service.EmployeeImportService;
 import com.example.springtestproject.service.EmployeeService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/employees")
@@ -17,21 +37,128 @@ public class EmployeeController {
     @Autowired
     private EmployeeService employeeService;
 
+    @Autowired
+    private EmployeeImportService employeeImportService;
+
+    @Autowired
+    private EmployeeExportService employeeExportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public Employee createEmployee(@RequestBody Employee employee){
         return employeeService.saveEmployee(employee);
     }
 
+    @PostMapping("bulk")
+    public ResponseEntity<List<Employee>> createEmployees(@RequestBody List<Employee> employees){
+        if(employees.isEmpty() || employees.size() > EmployeeService.MAX_BULK_SIZE){
+            return ResponseEntity.badRequest().build();
+        }
+        return new ResponseEntity<List<Employee>>(employeeService.saveAllEmployees(employees), HttpStatus.CREATED);
+    }
+
+    //the body is read as a stream, rows are committed in chunks while the upload is still in progress
+    @PostMapping(value = "import", consumes = "text/csv")
+    public ImportReport importEmployeesCsv(InputStream body) throws IOException {
+        return employeeImportService.importEmployees(body, EmployeeFileFormat.CSV);
+    }
+
+    @PostMapping(value = "import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ImportReport importEmployeesNdjson(InputStream body) throws IOException {
+        return employeeImportService.importEmployees(body, EmployeeFileFormat.NDJSON);
+    }
+
+    //the aggregate version is read first, so an unchanged list costs one aggregate query and no serialization;
+    //a change racing in between only makes the next poll return 200 again. The tag is weak because Tomcat
+    //does not compress responses carrying a strong ETag
     @GetMapping
-    public List<Employee> getAllEmployees(){
-        return employeeService.getAllEmployee();
+    public ResponseEntity<List<EmployeeView>> getAllEmployees(WebRequest request){
+        String eTag = "W/\"" + employeeService.getEmployeesVersion().eTag() + "\"";
+        if(request.checkNotModified(eTag)){
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(employeeService.getAllEmployee());
+    }
+
+    @GetMapping(params = "limit")
+    public EmployeePage getEmployeesPage(@RequestParam("limit") int limit,
+                                         @RequestParam(value = "after", defaultValue = "0") long after){
+        return employeeService.getEmployeesPage(after, limit);
+    }
+
+    @GetMapping(params = "email")
+    public ResponseEntity<Employee> getEmployeeByEmail(@RequestParam("email") String email){
+        return employeeService.getEmployeeByEmail(email)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @GetMapping(value = "search", params = "lastName")
+    public List<EmployeeView> searchEmployeesByName(@RequestParam("lastName") String lastName,
+                                                    @RequestParam(value = "firstName", defaultValue = "") String firstName,
+                                                    @RequestParam(value = "page", defaultValue = "0") int page,
+                                                    @RequestParam(value = "size", defaultValue = "20") int size){
+        return employeeService.searchEmployeesByName(lastName, firstName, page, size);
+    }
+
+    //type-ahead over names and emails: every word of q has to match, best matches first
+    @GetMapping(value = "search", params = {"q", "!lastName"})
+    public List<EmployeeView> searchEmployees(@RequestParam("q") String query,
+                                              @RequestParam(value = "limit", defaultValue = "10") int limit){
+        return employeeService.searchEmployees(query, limit);
+    }
+
+    @GetMapping(value = "stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public StreamingResponseBody streamAllEmployees(){
+        return outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.writeStartArray();
+                employeeService.streamAllEmployees(employee -> {
+                    try {
+                        generator.writeObject(employee);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+    }
+
+    //the whole table as a download, gzip encoded when the client accepts it
+    @GetMapping("export")
+    public ResponseEntity<StreamingResponseBody> exportEmployees(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+                                                                 @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, defaultValue = "") String acceptEncoding){
+        return EmployeeFileFormat.fromName(format)
+                .map(fileFormat -> {
+                    boolean gzip = acceptEncoding.contains("gzip");
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                            .contentType(MediaType.parseMediaType(fileFormat.getMediaType()))
+                            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                                    .filename("employees." + fileFormat.getExtension()).build().toString());
+                    if(gzip){
+                        response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+                    }
+                    return response.<StreamingResponseBody>body(outputStream -> {
+                        if(!gzip){
+                            employeeExportService.exportEmployees(outputStream, fileFormat);
+                            return;
+                        }
+                        try (GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream, 64 * 1024)) {
+                            employeeExportService.exportEmployees(gzipStream, fileFormat);
+                        }
+                    });
+                }).orElseGet(() -> ResponseEntity.badRequest().build());
+    }
+
+    //a matching If-None-Match is answered with 304 from the cached entity, the body is never serialized
     @GetMapping("{id}")
     public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") long employeeId){
         return employeeService.getEmployeeById(employeeId)
-                .map(ResponseEntity::ok)
+                .map(EmployeeController::withETag)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
@@ -46,13 +173,39 @@ public class EmployeeController {
 
                     Employee updatedEmployee = employeeService.updateEmployee(savedEmployee);
 
-                    return new ResponseEntity<Employee>(updatedEmployee, HttpStatus.OK);
+                    return withETag(updatedEmployee);
                 }).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @PatchMapping("{id}")
+    public ResponseEntity<Employee> patchEmployee(@PathVariable("id") long employeeId, @RequestBody EmployeePatch patch){
+        return employeeService.patchEmployee(employeeId, patch)
+                .map(EmployeeController::withETag)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @DeleteMapping("{id}")
-    public ResponseEntity<String> deleteEmployee(@PathVariable("id") long employeeId){
-        employeeService.deleteEmployee(employeeId);
-        return new ResponseEntity<String>("Employee deleted successfully!", HttpStatus.OK);
+    public ResponseEntity<Void> deleteEmployee(@PathVariable("id") long employeeId){
+        return employeeService.deleteEmployee(employeeId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<Map<String, Integer>> deleteEmployees(@RequestParam("ids") List<Long> employeeIds){
+        if(employeeIds.isEmpty() || employeeIds.size() > EmployeeService.MAX_BULK_SIZE){
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(Map.of("deleted", employeeService.deleteEmployees(employeeIds)));
+    }
+
+    //strong ETag from the row version, which every update increments; shared with EmployeeAsyncController
+    static ResponseEntity<Employee> withETag(Employee employee){
+        return ResponseEntity.ok().eTag(employee.getId() + "-" + employee.getVersion()).body(employee);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleVersionConflict(OptimisticLockingFailureException e){
+        return new ResponseEntity<String>("Employee was modified concurrently, reload it and retry", HttpStatus.CONFLICT);
     }
 }
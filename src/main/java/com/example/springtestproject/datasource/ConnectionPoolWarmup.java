@@ -0,0 +1,116 @@
+package com.example.springtestproject.datasource;
+
+import com.example.springtestproject.model.EmployeeView;
+import com.example.springtestproject.repository.EmployeeRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs before the application reports itself ready (runners complete before ReadinessState.ACCEPTING_TRAFFIC):
+ * opens every pool's minimum-idle connections, which Hikari otherwise creates lazily after the first request,
+ * and runs the hot repository queries once so Hibernate and Spring Data have built their query plans.
+ * The pools fill in parallel within the warm-up's own timeout, much shorter than the pools' connection timeout:
+ * a pool that is not filled by then, such as a replica that is down, keeps filling in the background and
+ * does not hold back readiness.
+ */
+@Slf4j
+public class ConnectionPoolWarmup implements ApplicationRunner {
+    private final List<HikariDataSource> pools;
+
+    private final EmployeeRepository employeeRepository;
+
+    private final int queryRounds;
+
+    private final Duration timeout;
+
+    public ConnectionPoolWarmup(List<HikariDataSource> pools, EmployeeRepository employeeRepository, int queryRounds, Duration timeout) {
+        this.pools = List.copyOf(pools);
+        this.employeeRepository = employeeRepository;
+        this.queryRounds = queryRounds;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        fillAll(start + timeout.toNanos());
+        //query plans do not depend on the database, so a replica that is down cannot stall them
+        ReadYourWrites.onPrimary(() -> {
+            for(int round = 0; round < queryRounds; round++){
+                employeeRepository.findById(-1L);
+                employeeRepository.findByEmail("");
+                employeeRepository.findByIdGreaterThanOrderByIdAsc(Long.MAX_VALUE, Limit.of(1), EmployeeView.class);
+                employeeRepository.searchByName("", "", PageRequest.of(0, 1));
+                employeeRepository.findEmployeesVersion();
+            }
+            return null;
+        });
+        log.info("Connection pools warmed up in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void fillAll(long deadlineNanos) {
+        //daemon threads, a fill still waiting on a dead host must not keep the JVM alive
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, pools.size()), runnable -> {
+            Thread thread = new Thread(runnable, "pool-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<CompletableFuture<Void>> fills = pools.stream()
+                    .map(pool -> CompletableFuture.runAsync(() -> fill(pool), executor))
+                    .toList();
+            for(int i = 0; i < pools.size(); i++){
+                try {
+                    fills.get(i).get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    log.warn("Warm-up of pool {} not finished within {}, continuing without it", pools.get(i).getPoolName(), timeout);
+                } catch (ExecutionException e) {
+                    log.warn("Warm-up of pool {} failed", pools.get(i).getPoolName(), e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            //lets unfinished fills complete and return their connections
+            executor.shutdown();
+        }
+    }
+
+    //borrows minimum-idle connections at once so all of them are opened and validated now
+    private static void fill(HikariDataSource pool) {
+        int connections = Math.max(1, Math.min(pool.getMinimumIdle(), pool.getMaximumPoolSize()));
+        List<Connection> borrowed = new ArrayList<>(connections);
+        try {
+            for(int i = 0; i < connections; i++){
+                borrowed.add(pool.getConnection());
+            }
+        } catch (SQLException e) {
+            //a pool that cannot fill is reported by health and hikaricp metrics, warm-up must not block the start
+            log.warn("Warm-up opened {} of {} connections for pool {}: {}", borrowed.size(), connections, pool.getPoolName(), e.getMessage());
+        } finally {
+            for(Connection connection : borrowed){
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.debug("Failed to return warm-up connection", e);
+                }
+            }
+        }
+    }
+}
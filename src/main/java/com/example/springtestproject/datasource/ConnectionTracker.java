@@ -0,0 +1,222 @@
+package com.example.springtestproject.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers every connection the Hikari pools have handed out and not got back yet, with the code that took it,
+ * so that a saturated pool can be explained by its holders. A connection counts from the moment the pool hands it
+ * out until it is closed: threads still waiting for one are not holders, a transaction spanning several repository
+ * calls is one. Each holder names the repository method running on it, the latest one for a transaction between
+ * calls, and the innermost application frame that took the connection, e.g. the {@code @Transactional} service
+ * method. Pool beans and repositories are wrapped as they are created, pools that are not beans through
+ * {@link #track(HikariDataSource)}.
+ */
+@Slf4j
+public class ConnectionTracker implements BeanPostProcessor {
+    private static final String APPLICATION_PACKAGE = applicationPackage();
+
+    private final Map<Connection, Holder> held = new ConcurrentHashMap<>();
+
+    //the repository method running on this thread, null outside repository calls
+    private final ThreadLocal<String> repositoryMethod = new ThreadLocal<>();
+
+    //the connections this thread took, innermost last, so repository calls can be attributed to them
+    private final ThreadLocal<Deque<Holder>> threadHolders = ThreadLocal.withInitial(ArrayDeque::new);
+
+    //repositories are advised through their factory beans, before the repository proxy is built
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if(bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactory){
+            repositoryFactory.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(this::adviseRepository));
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        return bean instanceof HikariDataSource pool ? track(pool) : bean;
+    }
+
+    //a subclass proxy, so the pool can still be used as a HikariDataSource
+    public HikariDataSource track(HikariDataSource pool) {
+        ProxyFactory proxyFactory = new ProxyFactory(pool);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+            if(!invocation.getMethod().getName().equals("getConnection")){
+                return invocation.proceed();
+            }
+            Connection connection;
+            try {
+                connection = (Connection) invocation.proceed();
+            } catch (SQLTransientConnectionException e) {
+                log.warn("Connection request to pool {} timed out in {}, connections held: {}",
+                        pool.getPoolName(), currentCaller(), describe(snapshot()));
+                throw e;
+            }
+            return hold(connection, pool.getPoolName());
+        });
+        return (HikariDataSource) proxyFactory.getProxy();
+    }
+
+    //longest held first
+    public List<HeldConnection> snapshot() {
+        return held.values().stream()
+                .map(Holder::toHeldConnection)
+                .sorted(Comparator.comparingLong(HeldConnection::startNanos))
+                .toList();
+    }
+
+    public static String describe(List<HeldConnection> connections) {
+        if(connections.isEmpty()){
+            return "none";
+        }
+        StringBuilder description = new StringBuilder();
+        long now = System.nanoTime();
+        for(HeldConnection connection : connections){
+            description.append(System.lineSeparator()).append("  ")
+                    .append(connection.repositoryMethod() == null ? "no repository call" : connection.repositoryMethod())
+                    .append(" in ").append(connection.holder())
+                    .append(" on ").append(connection.pool())
+                    .append(" for ").append(TimeUnit.NANOSECONDS.toMillis(now - connection.startNanos())).append(" ms on ")
+                    .append(connection.thread());
+        }
+        return description.toString();
+    }
+
+    private void adviseRepository(ProxyFactory proxyFactory, RepositoryInformation repositoryInformation) {
+        String repository = repositoryInformation.getRepositoryInterface().getSimpleName();
+        proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+            String method = repository + "." + invocation.getMethod().getName();
+            String previous = repositoryMethod.get();
+            repositoryMethod.set(method);
+            Deque<Holder> holders = threadHolders.get();
+            holders.removeIf(Holder::isClosed);
+            if(!holders.isEmpty()){
+                holders.getLast().repositoryMethod = method;
+            }
+            try {
+                return invocation.proceed();
+            } finally {
+                if(previous == null){
+                    repositoryMethod.remove();
+                } else {
+                    repositoryMethod.set(previous);
+                }
+            }
+        });
+    }
+
+    private Connection hold(Connection connection, String pool) {
+        Holder holder = new Holder(Thread.currentThread().getName(), caller(), pool, System.nanoTime());
+        holder.repositoryMethod = repositoryMethod.get();
+        InvocationHandler handler = (target, method, args) -> switch(method.getName()) {
+            case "equals" -> target == args[0];
+            case "hashCode" -> System.identityHashCode(target);
+            default -> {
+                if(method.getName().equals("close")){
+                    release(target, holder);
+                }
+                try {
+                    yield method.invoke(connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            }
+        };
+        Connection proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+        held.put(proxy, holder);
+        Deque<Holder> holders = threadHolders.get();
+        holders.removeIf(Holder::isClosed);
+        holders.addLast(holder);
+        return proxy;
+    }
+
+    //a connection may be closed by another thread, the taking thread then drops it on its next repository call
+    private void release(Object connection, Holder holder) {
+        held.remove(connection);
+        holder.closed = true;
+        Deque<Holder> holders = threadHolders.get();
+        holders.remove(holder);
+        if(holders.isEmpty()){
+            threadHolders.remove();
+        }
+    }
+
+    private String currentCaller() {
+        String method = repositoryMethod.get();
+        return method == null ? caller() : method + " in " + caller();
+    }
+
+    //innermost application frame above the tracker and the replica router, CGLIB proxy suffixes dropped
+    private static String caller() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(APPLICATION_PACKAGE)
+                        && !frame.getClassName().startsWith(ConnectionTracker.class.getName())
+                        && !frame.getClassName().startsWith(ReplicaRoutingDataSource.class.getName()))
+                .findFirst()
+                .map(frame -> {
+                    String className = frame.getClassName();
+                    int proxySuffix = className.indexOf("$$");
+                    className = className.substring(className.lastIndexOf('.') + 1, proxySuffix < 0 ? className.length() : proxySuffix);
+                    return className + "." + frame.getMethodName();
+                })
+                .orElse("unknown caller"));
+    }
+
+    private static String applicationPackage() {
+        String ownPackage = ConnectionTracker.class.getPackageName();
+        return ownPackage.substring(0, ownPackage.lastIndexOf('.') + 1);
+    }
+
+    private static final class Holder {
+        private final String thread;
+
+        private final String caller;
+
+        private final String pool;
+
+        private final long startNanos;
+
+        private volatile String repositoryMethod;
+
+        private volatile boolean closed;
+
+        private Holder(String thread, String caller, String pool, long startNanos) {
+            this.thread = thread;
+            this.caller = caller;
+            this.pool = pool;
+            this.startNanos = startNanos;
+        }
+
+        private boolean isClosed() {
+            return closed;
+        }
+
+        private HeldConnection toHeldConnection() {
+            return new HeldConnection(thread, repositoryMethod, caller, pool, startNanos);
+        }
+    }
+
+    //repositoryMethod is null while no repository method has run on the connection
+    public record HeldConnection(String thread, String repositoryMethod, String holder, String pool, long startNanos) {
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.springtestproject.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Polls the Hikari pools and, while threads are waiting for a connection, logs who holds them: the
+ * code that took each connection still out of the pool, as tracked by {@link ConnectionTracker}. Logs at most once per quiet period.
+ */
+@Slf4j
+public class PoolSaturationMonitor implements Runnable {
+    private final List<HikariDataSource> pools;
+
+    private final ConnectionTracker tracker;
+
+    private final long quietPeriodNanos;
+
+    //0 until the first report
+    private final AtomicLong lastReportNanos = new AtomicLong();
+
+    public PoolSaturationMonitor(List<HikariDataSource> pools, ConnectionTracker tracker, Duration quietPeriod) {
+        this.pools = List.copyOf(pools);
+        this.tracker = tracker;
+        this.quietPeriodNanos = quietPeriod.toNanos();
+    }
+
+    @Override
+    public void run() {
+        check();
+    }
+
+    //returns true when a saturated pool was reported
+    public boolean check() {
+        boolean reported = false;
+        for(HikariDataSource pool : pools){
+            HikariPoolMXBean stats = pool.getHikariPoolMXBean();
+            //null until the pool has started
+            if(stats == null || stats.getThreadsAwaitingConnection() == 0){
+                continue;
+            }
+            long now = System.nanoTime();
+            long last = lastReportNanos.get();
+            if((last != 0 && now - last < quietPeriodNanos) || !lastReportNanos.compareAndSet(last, now)){
+                continue;
+            }
+            log.warn("Pool {} saturated: {}/{} connections active, {} threads waiting. Connections held: {}",
+                    pool.getPoolName(), stats.getActiveConnections(), pool.getMaximumPoolSize(),
+                    stats.getThreadsAwaitingConnection(), ConnectionTracker.describe(tracker.snapshot()));
+            reported = true;
+        }
+        return reported;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.springtestproject.datasource;
+
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.function.Supplier;
+
+/**
+ * Marks the current thread as serving a client that wrote recently, so that even its read-only
+ * transactions are routed to the primary and never hit a replica that has not caught up yet.
+ */
+public final class ReadYourWrites {
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    //carries the flag onto executor threads, e.g. the ones behind /api/employees/async
+    public static final TaskDecorator TASK_DECORATOR = task -> {
+        boolean primaryRequired = isPrimaryRequired();
+        return () -> {
+            Boolean previous = requirePrimary(primaryRequired);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    };
+
+    private ReadYourWrites() {
+    }
+
+    public static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+
+    //returns the previous value, hand it to restore in a finally block
+    public static Boolean requirePrimary(boolean primaryRequired) {
+        Boolean previous = PRIMARY_REQUIRED.get();
+        PRIMARY_REQUIRED.set(primaryRequired);
+        return previous;
+    }
+
+    //runs the action with its read-only transactions on the primary, for reads whose result outlives the request
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = requirePrimary(true);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static void restore(Boolean previous) {
+        if(previous == null){
+            PRIMARY_REQUIRED.remove();
+        } else {
+            PRIMARY_REQUIRED.set(previous);
+        }
+    }
+}
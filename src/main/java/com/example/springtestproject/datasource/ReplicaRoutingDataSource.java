@@ -0,0 +1,209 @@
+package com.example.springtestproject.datasource;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends connections for read-only transactions to a healthy replica, round robin, and everything else to the
+ * primary. Must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the
+ * transaction manager asks for a connection before the read-only flag is bound to the thread.
+ * A replica is taken out of rotation when it fails a health check, lags more than the allowed maximum or
+ * refuses a connection, reads then fall back to the primary until the next check passes.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements MeterBinder {
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final Duration maxLag;
+
+    private final String lagQuery;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final LongAdder primaryConnections = new LongAdder();
+
+    private final LongAdder replicaConnections = new LongAdder();
+
+    private final LongAdder fallbackConnections = new LongAdder();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, Duration maxLag, String lagQuery) {
+        //without it a replica that falls behind would keep serving reads
+        if(!replicas.isEmpty() && !StringUtils.hasText(lagQuery)){
+            throw new IllegalArgumentException("Expected employees.datasource.replica.lag-query to be set when replicas are configured");
+        }
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.maxLag = maxLag;
+        this.lagQuery = lagQuery;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(DataSource::getConnection);
+    }
+
+    //the credentials are passed to whichever datasource the connection is routed to
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    //liveness and replication delay; run periodically by the config
+    public void checkReplicas() {
+        for(Replica replica : replicas){
+            try (Connection connection = replica.getDataSource().getConnection()) {
+                if(!connection.isValid(5)){
+                    replica.markDown("connection not valid");
+                    continue;
+                }
+                Duration lag = readLag(connection);
+                if(lag == null){
+                    replica.markDown("replication not running");
+                    continue;
+                }
+                if(lag.compareTo(maxLag) > 0){
+                    replica.markDown("lagging " + lag.toSeconds() + "s");
+                    continue;
+                }
+                replica.markUp();
+            } catch (SQLException e) {
+                replica.markDown(e.getMessage());
+            }
+        }
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    //closes the replica pools, the primary is owned by whoever created it
+    public void close() {
+        for(Replica replica : replicas){
+            if(replica.getDataSource() instanceof AutoCloseable closeable){
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Failed to close replica {}", replica.getName(), e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindConnections(registry, primaryConnections, "primary");
+        bindConnections(registry, replicaConnections, "replica");
+        bindConnections(registry, fallbackConnections, "fallback");
+        for(Replica replica : replicas){
+            Gauge.builder("employees.datasource.replica.healthy", replica, r -> r.isHealthy() ? 1 : 0)
+                    .tag("replica", replica.getName())
+                    .register(registry);
+        }
+    }
+
+    private static void bindConnections(MeterRegistry registry, LongAdder connections, String route) {
+        FunctionCounter.builder("employees.datasource.connections", connections, LongAdder::sum)
+                .description("Connections handed out by the routing datasource, fallback = read-only on the primary")
+                .tag("route", route)
+                .register(registry);
+    }
+
+    private Connection connect(ConnectionSource source) throws SQLException {
+        if(!routeToReplica()){
+            primaryConnections.increment();
+            return source.connect(primary);
+        }
+        for(int attempt = 0; attempt < replicas.size(); attempt++){
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if(!replica.isHealthy()){
+                continue;
+            }
+            try {
+                Connection connection = source.connect(replica.getDataSource());
+                replicaConnections.increment();
+                return connection;
+            } catch (SQLException e) {
+                replica.markDown(e.getMessage());
+            }
+        }
+        fallbackConnections.increment();
+        return source.connect(primary);
+    }
+
+    private static boolean routeToReplica() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !ReadYourWrites.isPrimaryRequired();
+    }
+
+    //seconds behind the primary; reads Seconds_Behind_Source when the query is SHOW REPLICA STATUS, else column 1
+    private Duration readLag(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            if(!resultSet.next()){
+                return null;
+            }
+            long seconds = resultSet.getLong(lagColumn(resultSet.getMetaData()));
+            return resultSet.wasNull() ? null : Duration.ofSeconds(seconds);
+        }
+    }
+
+    private static int lagColumn(ResultSetMetaData metaData) throws SQLException {
+        for(int column = 1; column <= metaData.getColumnCount(); column++){
+            if("Seconds_Behind_Source".equalsIgnoreCase(metaData.getColumnLabel(column))){
+                return column;
+            }
+        }
+        return 1;
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection connect(DataSource dataSource) throws SQLException;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Replica {
+        private final String name;
+
+        private final DataSource dataSource;
+
+        private volatile boolean healthy = true;
+
+        void markDown(String reason) {
+            if(healthy){
+                log.warn("Replica {} taken out of rotation, reads fall back to the primary: {}", name, reason);
+            }
+            healthy = false;
+        }
+
+        void markUp() {
+            if(!healthy){
+                log.info("Replica {} back in rotation", name);
+            }
+            healthy = true;
+        }
+    }
+}
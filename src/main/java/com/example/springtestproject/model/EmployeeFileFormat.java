@@ -0,0 +1,34 @@
+package com.example.springtestproject.model;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+
+//file formats accepted by the import and produced by the export, CSV always carries a header row
+public enum EmployeeFileFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String mediaType;
+
+    private final String extension;
+
+    EmployeeFileFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static Optional<EmployeeFileFormat> fromName(String name) {
+        return Arrays.stream(values())
+                .filter(format -> format.extension.equals(name.toLowerCase(Locale.ROOT)))
+                .findFirst();
+    }
+}
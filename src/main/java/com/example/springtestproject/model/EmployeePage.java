@@ -0,0 +1,17 @@
+package com.example.springtestproject.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeePage {
+    private List<EmployeeView> content;
+
+    //id to pass as "after" for the next page, null when there are no more rows
+    private Long nextCursor;
+}
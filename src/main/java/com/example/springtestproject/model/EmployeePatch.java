@@ -0,0 +1,21 @@
+package com.example.springtestproject.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//fields left null are not changed, version is the one the client last read
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeePatch {
+    private String firstName;
+
+    private String lastName;
+
+    private String email;
+
+    private Long version;
+}
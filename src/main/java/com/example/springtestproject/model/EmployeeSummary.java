@@ -0,0 +1,14 @@
+package com.example.springtestproject.model;
+
+//interface projection, Spring Data backs it with a proxy over the selected columns
+public interface EmployeeSummary {
+    long getId();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getEmail();
+
+    long getVersion();
+}
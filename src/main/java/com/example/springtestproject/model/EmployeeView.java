@@ -0,0 +1,15 @@
+package com.example.springtestproject.model;
+
+//read-only projection, not tracked by the persistence context; version is what a PATCH has to send back
+public record EmployeeView(long id, String firstName, String lastName, String email, long version) {
+
+    public static EmployeeView from(Employee employee) {
+        return new EmployeeView(employee.getId(), employee.getFirstName(), employee.getLastName(),
+                employee.getEmail(), employee.getVersion());
+    }
+
+    public static EmployeeView from(EmployeeSummary summary) {
+        return new EmployeeView(summary.getId(), summary.getFirstName(), summary.getLastName(),
+                summary.getEmail(), summary.getVersion());
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.springtestproject.model;
+
+//changes whenever the employees table does: inserts raise maxId (ids come from a sequence), deletes lower count
+//and every update bumps one row's version
+public record EmployeesVersion(long count, long maxId, long versionSum) {
+
+    public String eTag() {
+        return count + "-" + maxId + "-" + versionSum;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.springtestproject.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class ImportReport {
+    //data rows seen in the input, header and blank lines excluded
+    private long read;
+
+    private long imported;
+
+    private long rejected;
+
+    //committed transactions, one per chunk
+    private long chunks;
+
+    //per-row errors, capped so a bad multi-GB file cannot exhaust memory
+    private List<RowError> errors = new ArrayList<>();
+
+    private boolean errorsTruncated;
+
+    //false when the input could not be parsed any further and the rest of it was skipped
+    private boolean completed = true;
+
+    public record RowError(long row, String message) {
+    }
+}
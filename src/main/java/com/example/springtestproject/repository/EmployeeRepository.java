@@ -1,25 +1,70 @@
 package com.example.springtestproject.repository;
 
 import com.example.springtestproject.model.Employee;
+import com.example.springtestproject.model.EmployeeSummary;
+import com.example.springtestproject.model.EmployeeView;
+import com.example.springtestproject.model.EmployeesVersion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+    //the cacheable hints take effect only when the l2cache profile enables the query cache
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Employee.QUERY_CACHE_REGION)})
     Optional<Employee> findByEmail(String email);
 
-    //define custom query using JQPL with index param
-    @Query("select e from Employee e where e.firstName = ?1 and e.lastName = ?2")
-    Employee findByJPQL(String firstName, String lastName);
+    @Query("select e.email from Employee e where e.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
 
-    @Query("select e from Employee e where e.firstName =:firstName and e.lastName =:lastName")
-    Employee findByJPQLNamedParams(@Param("firstName") String firstName, @Param("lastName") String lastName);
+    //single DELETE without loading the entity first, returns the affected row count
+    @Transactional
+    @Modifying
+    @Query("delete from Employee e where e.id = :id")
+    int deleteEmployeeById(@Param("id") long id);
 
-    @Query(value = "select * from employees e where e.first_name = ?1 and e.last_name = ?2", nativeQuery = true)
-    Employee findByNativeSQL(String firstName, String lastName);
+    @Transactional
+    @Modifying
+    @Query("delete from Employee e where e.id in :ids")
+    int deleteEmployeesByIdIn(@Param("ids") Collection<Long> ids);
 
-    @Query(value = "select * from employees e where e.first_name =:firstName and e.last_name =:lastName", nativeQuery = true)
-    Employee findByNativeSQLNamed(@Param("firstName") String firstName, @Param("lastName") String lastName);
+    @Query("select new com.example.springtestproject.model.EmployeeView(e.id, e.firstName, e.lastName, e.email, e.version) " +
+            "from Employee e order by e.id")
+    List<EmployeeView> findAllViews();
+
+    @Query("select new com.example.springtestproject.model.EmployeesVersion(count(e), coalesce(max(e.id), 0), coalesce(sum(e.version), 0)) " +
+            "from Employee e")
+    EmployeesVersion findEmployeesVersion();
+
+    //keyset pagination: rows after the given id, in id order, as entities or as a projection such as EmployeeView
+    <T> List<T> findByIdGreaterThanOrderByIdAsc(long id, Limit limit, Class<T> type);
+
+    //prefix search served by idx_employees_last_first, an empty first name prefix matches every first name,
+    //prefixes must be passed through escapeLike. Native SQL measured fastest, see EmployeeRepositoryBenchmark;
+    //'!' escapes because MySQL and H2 disagree on how a backslash is written in a literal
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Employee.QUERY_CACHE_REGION),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "employees")})
+    @Query(value = "select e.id as id, e.first_name as firstName, e.last_name as lastName, e.email as email, e.version as version " +
+            "from employees e where e.last_name like concat(:lastName, '%') escape '!' and e.first_name like concat(:firstName, '%') escape '!' " +
+            "order by e.last_name, e.first_name, e.id", nativeQuery = true)
+    List<EmployeeSummary> searchByName(@Param("lastName") String lastNamePrefix,
+                                       @Param("firstName") String firstNamePrefix,
+                                       Pageable pageable);
+
+    //a prefix matching literally in searchByName, whatever LIKE wildcards it contains
+    static String escapeLike(String prefix) {
+        return prefix.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
 }
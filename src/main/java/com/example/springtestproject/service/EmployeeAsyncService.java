@@ -0,0 +1,65 @@
+package com.example.springtestproject.service;
+
+import com.example.springtestproject.config.AsyncConfig;
+import com.example.springtestproject.model.Employee;
+import com.example.springtestproject.model.EmployeePage;
+import com.example.springtestproject.model.EmployeePatch;
+import com.example.springtestproject.model.EmployeeView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking facade over {@link EmployeeService}: every database call runs on the bounded employee executor
+ * and the caller gets a {@link CompletableFuture}, so servlet threads are released during MySQL round trips.
+ * Submissions fail fast with {@link TaskRejectedException} when the executor queue is full.
+ */
+@Service
+public class EmployeeAsyncService {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @Autowired
+    @Qualifier(AsyncConfig.EMPLOYEE_EXECUTOR)
+    private ThreadPoolTaskExecutor employeeExecutor;
+
+    public CompletableFuture<Employee> saveEmployee(Employee employee) {
+        return CompletableFuture.supplyAsync(() -> employeeService.saveEmployee(employee), employeeExecutor);
+    }
+
+    public CompletableFuture<Optional<Employee>> getEmployeeById(long id) {
+        //cache hits need no connection, answer them without a hop to the executor
+        Optional<Employee> cached = employeeCache.peekById(id);
+        if(cached.isPresent()){
+            return CompletableFuture.completedFuture(cached);
+        }
+        return CompletableFuture.supplyAsync(() -> employeeService.getEmployeeById(id), employeeExecutor);
+    }
+
+    public CompletableFuture<EmployeePage> getEmployeesPage(long after, int limit) {
+        return CompletableFuture.supplyAsync(() -> employeeService.getEmployeesPage(after, limit), employeeExecutor);
+    }
+
+    public CompletableFuture<List<EmployeeView>> searchEmployeesByName(String lastNamePrefix, String firstNamePrefix, int page, int size) {
+        return CompletableFuture.supplyAsync(
+                () -> employeeService.searchEmployeesByName(lastNamePrefix, firstNamePrefix, page, size), employeeExecutor);
+    }
+
+    public CompletableFuture<Optional<Employee>> patchEmployee(long id, EmployeePatch patch) {
+        return CompletableFuture.supplyAsync(() -> employeeService.patchEmployee(id, patch), employeeExecutor);
+    }
+
+    public CompletableFuture<Boolean> deleteEmployee(long id) {
+        return CompletableFuture.supplyAsync(() -> employeeService.deleteEmployee(id), employeeExecutor);
+    }
+}
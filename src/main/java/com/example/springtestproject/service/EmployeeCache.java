@@ -0,0 +1,151 @@
+package com.example.springtestproject.service;
+
+import com.example.springtestproject.model.Employee;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * Bounded read-through cache for employee lookups by id and by email.
+ * Employees are stored once by id, the email cache only maps an email to an id and is trusted
+ * only while the cached employee still has that email, so both lookups always agree.
+ * Concurrent misses for the same key share one database load.
+ */
+@Component
+public class EmployeeCache implements MeterBinder {
+    private final Cache<Long, Employee> employeesById;
+    private final Cache<String, Long> idsByEmail;
+
+    //bumped on every write so that a load racing with a write never caches the stale row
+    private final AtomicLong generation = new AtomicLong();
+
+    //flights are keyed by generation too, a caller never joins a load that started before a write it has seen
+    private final SingleFlight<IdLoad, Optional<Employee>> idLoads = new SingleFlight<>();
+    private final SingleFlight<EmailLoad, Optional<Employee>> emailLoads = new SingleFlight<>();
+
+    public EmployeeCache(@Value("${employees.cache.maximum-size:10000}") long maximumSize,
+                         @Value("${employees.cache.ttl:10m}") Duration ttl) {
+        this.employeesById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.idsByEmail = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    //cache-only lookup, never calls the database
+    public Optional<Employee> peekById(long id) {
+        return Optional.ofNullable(employeesById.getIfPresent(id)).map(EmployeeCache::copy);
+    }
+
+    public Optional<Employee> getById(long id, LongFunction<Optional<Employee>> loader) {
+        Employee cached = employeesById.getIfPresent(id);
+        if(cached != null){
+            return Optional.of(copy(cached));
+        }
+        long observedGeneration = generation.get();
+        Optional<Employee> loaded = idLoads.execute(new IdLoad(id, observedGeneration), load -> loader.apply(load.id()));
+        loaded.ifPresent(employee -> putLoaded(employee, observedGeneration));
+        return loaded.map(EmployeeCache::copy);
+    }
+
+    public Optional<Employee> getByEmail(String email, Function<String, Optional<Employee>> loader) {
+        Long id = idsByEmail.getIfPresent(email);
+        if(id != null){
+            Employee cached = employeesById.getIfPresent(id);
+            if(cached != null && email.equals(cached.getEmail())){
+                return Optional.of(copy(cached));
+            }
+            idsByEmail.invalidate(email);
+        }
+        long observedGeneration = generation.get();
+        Optional<Employee> loaded = emailLoads.execute(new EmailLoad(email, observedGeneration), load -> loader.apply(load.email()));
+        loaded.ifPresent(employee -> putLoaded(employee, observedGeneration));
+        return loaded.map(EmployeeCache::copy);
+    }
+
+    //refreshes the entries of an employee that has just been written
+    public void put(Employee employee) {
+        generation.incrementAndGet();
+        Employee previous = employeesById.asMap().put(employee.getId(), copy(employee));
+        if(previous != null && !previous.getEmail().equals(employee.getEmail())){
+            idsByEmail.invalidate(previous.getEmail());
+        }
+        idsByEmail.put(employee.getEmail(), employee.getId());
+    }
+
+    //for rows changed outside the service, e.g. a bulk delete in SQL
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        employeesById.invalidateAll();
+        idsByEmail.invalidateAll();
+    }
+
+    public void evict(long id) {
+        generation.incrementAndGet();
+        Employee previous = employeesById.asMap().remove(id);
+        if(previous != null){
+            idsByEmail.invalidate(previous.getEmail());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, employeesById, "employeesById");
+        CaffeineCacheMetrics.monitor(registry, idsByEmail, "employeeIdsByEmail");
+        bindLoads(registry, idLoads, "id");
+        bindLoads(registry, emailLoads, "email");
+    }
+
+    //coalescing ratio = employees.cache.loads.coalesced / employees.cache.loads.requests
+    private static void bindLoads(MeterRegistry registry, SingleFlight<?, ?> loads, String lookup) {
+        FunctionCounter.builder("employees.cache.loads.requests", loads, SingleFlight::requests)
+                .description("Cache misses that needed a database load")
+                .tag("lookup", lookup)
+                .register(registry);
+        FunctionCounter.builder("employees.cache.loads.coalesced", loads, SingleFlight::coalesced)
+                .description("Cache misses answered by another caller's in-flight load")
+                .tag("lookup", lookup)
+                .register(registry);
+        Gauge.builder("employees.cache.loads.coalescing.ratio", loads,
+                        flights -> flights.requests() == 0 ? 0 : (double) flights.coalesced() / flights.requests())
+                .tag("lookup", lookup)
+                .register(registry);
+    }
+
+    private void putLoaded(Employee employee, long observedGeneration) {
+        employeesById.put(employee.getId(), copy(employee));
+        idsByEmail.put(employee.getEmail(), employee.getId());
+        if(generation.get() != observedGeneration){
+            //a write happened while loading, the loaded row may already be stale
+            employeesById.invalidate(employee.getId());
+            idsByEmail.invalidate(employee.getEmail());
+        }
+    }
+
+    private static Employee copy(Employee employee) {
+        return employee.toBuilder().build();
+    }
+
+    private record IdLoad(long id, long generation) {
+    }
+
+    private record EmailLoad(String email, long generation) {
+    }
+}
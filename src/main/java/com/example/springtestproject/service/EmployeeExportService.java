@@ -0,0 +1,97 @@
+package com.example.springtestproject.service;
+
+import com.example.springtestproject.model.EmployeeFileFormat;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Writes the whole employees table as NDJSON or CSV straight from a forward-only JDBC result set.
+ * No entities are created, so neither the persistence context nor the heap grows with the table size;
+ * with the default fetch size MySQL streams the rows one by one instead of buffering the result.
+ */
+@Service
+public class EmployeeExportService {
+    private static final String EXPORT_SQL = "select id, first_name, last_name, email, version from employees order by id";
+
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+
+    //same column names as the JSON representation, so an export can be fed back into the import
+    private static final CsvSchema CSV_SCHEMA = CsvSchema.builder()
+            .addNumberColumn("id")
+            .addColumn("firstName")
+            .addColumn("lastName")
+            .addColumn("email")
+            .addNumberColumn("version")
+            .setUseHeader(true)
+            .build();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    //Integer.MIN_VALUE switches MySQL Connector/J to row-by-row streaming
+    @Value("${employees.stream.fetch-size:" + Integer.MIN_VALUE + "}")
+    private int streamFetchSize;
+
+    public long exportEmployees(OutputStream output, EmployeeFileFormat format) throws IOException {
+        long[] rows = new long[1];
+        try (JsonGenerator generator = createGenerator(output, format)) {
+            boolean ndjson = format == EmployeeFileFormat.NDJSON;
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(EXPORT_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(streamFetchSize);
+                return statement;
+            }, (RowCallbackHandler) resultSet -> {
+                try {
+                    writeRow(generator, resultSet);
+                    if(ndjson){
+                        generator.writeRaw('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+        }
+        return rows[0];
+    }
+
+    private JsonGenerator createGenerator(OutputStream output, EmployeeFileFormat format) throws IOException {
+        if(format == EmployeeFileFormat.CSV){
+            JsonGenerator generator = CSV_MAPPER.getFactory().createGenerator(output);
+            generator.setSchema(CSV_SCHEMA);
+            return generator;
+        }
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(output);
+        //rows are separated by the newline written after each of them
+        generator.setRootValueSeparator(null);
+        return generator;
+    }
+
+    private static void writeRow(JsonGenerator generator, ResultSet resultSet) throws IOException, SQLException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", resultSet.getLong(1));
+        generator.writeStringField("firstName", resultSet.getString(2));
+        generator.writeStringField("lastName", resultSet.getString(3));
+        generator.writeStringField("email", resultSet.getString(4));
+        generator.writeNumberField("version", resultSet.getLong(5));
+        generator.writeEndObject();
+    }
+}
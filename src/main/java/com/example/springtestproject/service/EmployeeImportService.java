@@ -0,0 +1,225 @@
+package com.example.springtestproject.service;
+
+import com.example.springtestproject.model.Employee;
+import com.example.springtestproject.model.EmployeeFileFormat;
+import com.example.springtestproject.model.ImportReport;
+import com.example.springtestproject.repository.EmployeeRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams an employee roster from CSV (with a firstName,lastName,email header) or NDJSON into the database.
+ * Rows are validated one by one, collected into chunks of employees.import.chunk-size, checked against
+ * existing emails with one query per chunk and committed per chunk, so memory stays bounded by the chunk
+ * size whatever the input size. Chunks committed before a failure stay committed.
+ */
+@Slf4j
+@Service
+public class EmployeeImportService {
+    private static final int MAX_COLUMN_LENGTH = 255;
+
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .enable(CsvParser.Feature.TRIM_SPACES)
+            .enable(CsvParser.Feature.SKIP_EMPTY_LINES)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${employees.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${employees.import.max-errors:1000}")
+    private int maxErrors;
+
+    //a progress line is logged every this many chunks
+    @Value("${employees.import.progress-interval:100}")
+    private int progressInterval;
+
+    public ImportReport importEmployees(InputStream input, EmployeeFileFormat format) throws IOException {
+        ImportReport report = new ImportReport();
+        Map<String, ImportRow> chunk = new LinkedHashMap<>();
+        if(format == EmployeeFileFormat.NDJSON){
+            readNdjson(input, report, chunk);
+        } else {
+            readCsv(input, report, chunk);
+        }
+        importChunk(chunk, report);
+        log.info("Employee import finished: {} read, {} imported, {} rejected, completed {}",
+                report.getRead(), report.getImported(), report.getRejected(), report.isCompleted());
+        return report;
+    }
+
+    private void readNdjson(InputStream input, ImportReport report, Map<String, ImportRow> chunk) throws IOException {
+        ObjectReader rowReader = objectMapper.readerFor(Employee.class);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String line;
+        while((line = reader.readLine()) != null){
+            if(line.isBlank()){
+                continue;
+            }
+            long row = nextRow(report);
+            //one object per line, so a malformed line never affects the next one
+            try {
+                accept(row, rowReader.readValue(line), chunk, report);
+            } catch (JsonProcessingException e) {
+                reject(report, row, "Malformed row: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private void readCsv(InputStream input, ImportReport report, Map<String, ImportRow> chunk) throws IOException {
+        ObjectReader rowReader = CSV_MAPPER.readerFor(Employee.class).with(CsvSchema.emptySchema().withHeader());
+        try (MappingIterator<Employee> rows = rowReader.readValues(input)) {
+            while(rows.hasNextValue()){
+                long row = nextRow(report);
+                try {
+                    accept(row, rows.nextValue(), chunk, report);
+                } catch (JsonMappingException e) {
+                    //the iterator resyncs to the next record after a mapping error
+                    reject(report, row, "Malformed row: " + e.getOriginalMessage());
+                } catch (JsonProcessingException e) {
+                    reject(report, row, "Unreadable input, import stopped: " + e.getOriginalMessage());
+                    report.setCompleted(false);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void accept(long row, Employee employee, Map<String, ImportRow> chunk, ImportReport report) {
+        String error = validate(employee);
+        if(error != null){
+            reject(report, row, error);
+            return;
+        }
+        employee.setId(0);
+        employee.setVersion(0);
+        ImportRow first = chunk.putIfAbsent(employee.getEmail(), new ImportRow(row, employee));
+        if(first != null){
+            reject(report, row, "Duplicate email " + employee.getEmail() + ", first seen at row " + first.row());
+            return;
+        }
+        if(chunk.size() >= chunkSize){
+            importChunk(chunk, report);
+        }
+    }
+
+    private void importChunk(Map<String, ImportRow> chunk, ImportReport report) {
+        if(chunk.isEmpty()){
+            return;
+        }
+        List<ImportRow> rows = new ArrayList<>(chunk.values());
+        chunk.clear();
+        Set<String> existing;
+        try {
+            //a fresh persistence context per chunk, it is released on commit
+            existing = transactionTemplate.execute(status -> {
+                Set<String> existingEmails = new HashSet<>(employeeRepository.findExistingEmails(
+                        rows.stream().map(row -> row.employee().getEmail()).toList()));
+                employeeRepository.saveAll(rows.stream()
+                        .filter(row -> !existingEmails.contains(row.employee().getEmail()))
+                        .map(ImportRow::employee)
+                        .toList());
+                employeeRepository.flush();
+                return existingEmails;
+            });
+        } catch (DataIntegrityViolationException e) {
+            //a concurrent writer inserted one of the emails after the check, the whole chunk was rolled back
+            rows.forEach(row -> reject(report, row.row(), "Chunk rolled back: " + e.getMostSpecificCause().getMessage()));
+            return;
+        }
+        for(ImportRow row : rows){
+            if(existing.contains(row.employee().getEmail())){
+                reject(report, row.row(), "Employee already exists with given email " + row.employee().getEmail());
+            } else {
+                report.setImported(report.getImported() + 1);
+                employeeSearchIndex.put(row.employee());
+            }
+        }
+        report.setChunks(report.getChunks() + 1);
+        if(progressInterval > 0 && report.getChunks() % progressInterval == 0){
+            log.info("Employee import in progress: {} read, {} imported, {} rejected",
+                    report.getRead(), report.getImported(), report.getRejected());
+        }
+    }
+
+    private static String validate(Employee employee) {
+        if(employee == null){
+            return "Empty row";
+        }
+        String error = validateColumn("firstName", employee.getFirstName());
+        if(error == null){
+            error = validateColumn("lastName", employee.getLastName());
+        }
+        if(error == null){
+            error = validateColumn("email", employee.getEmail());
+        }
+        if(error == null && employee.getEmail().indexOf('@') < 1){
+            error = "email is not a valid address: " + employee.getEmail();
+        }
+        return error;
+    }
+
+    private static String validateColumn(String name, String value) {
+        if(value == null || value.isBlank()){
+            return name + " is required";
+        }
+        if(value.length() > MAX_COLUMN_LENGTH){
+            return name + " is longer than " + MAX_COLUMN_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    private static long nextRow(ImportReport report) {
+        report.setRead(report.getRead() + 1);
+        return report.getRead();
+    }
+
+    private void reject(ImportReport report, long row, String message) {
+        report.setRejected(report.getRejected() + 1);
+        if(report.getErrors().size() < maxErrors){
+            report.getErrors().add(new ImportReport.RowError(row, message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    private record ImportRow(long row, Employee employee) {
+    }
+}
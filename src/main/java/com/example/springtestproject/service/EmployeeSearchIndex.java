@@ -0,0 +1,708 @@
+package com.example.springtestproject.service;
+
+import com.example.springtestproject.model.Employee;
+import com.example.springtestproject.model.EmployeeView;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * In-memory type-ahead search over employee names and emails, so a search never becomes a LIKE '%x%' scan.
+ * Names and emails are split into lowercase words at anything that is not a letter or digit. Every word is
+ * indexed by its trigrams, by its first one and two characters and by its last two, and each gram points to a sorted
+ * int array of document numbers. A query word of three or more characters matches anywhere inside a word, a shorter one only
+ * at the start of a word, and a document has to match every query word. Whole words rank above word prefixes,
+ * prefixes above matches inside a word, then lower ids first. The word end grams bound the best score a query can
+ * reach, so a query stops as soon as its first results cannot be beaten.
+ * A write indexes the new version as a new document and tombstones the old one. Documents are numbered in id order
+ * except for such updates, which are remembered so a query that stops early still looks at them for lower ids.
+ * Once tombstones make up a quarter of the documents the lists are compacted from a snapshot without holding the
+ * lock, then swapped in together with the writes made meanwhile. Only writes made through this instance are seen.
+ */
+@Component
+public class EmployeeSearchIndex implements MeterBinder {
+    //precedes the first character in prefix grams, so those only match at the start of a word
+    private static final char WORD_START = '\u0001';
+
+    //follows the last two characters in word end grams, only used to tell whether a query word can match whole
+    private static final char WORD_END = '\u0002';
+
+    private static final int WHOLE_WORD = 3;
+    private static final int WORD_PREFIX = 2;
+    private static final int INSIDE_WORD = 1;
+
+    private static final int MIN_COMPACTION = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    //documents verified per query at most, a query matching more returns the best of the ones verified
+    private final int maxCandidates;
+
+    //all state below is guarded by the lock
+    private Map<Long, Postings> postings = new HashMap<>();
+
+    private EmployeeView[] documents = new EmployeeView[1024];
+
+    private int documentCount;
+
+    private BitSet deleted = new BitSet();
+
+    private int deletedCount;
+
+    //documents with a lower id than one numbered before them
+    private BitSet outOfOrder = new BitSet();
+
+    //highest id ever indexed, the documents above it are in id order
+    private long highestId = Long.MIN_VALUE;
+
+    private boolean compacting;
+
+    private DocumentIds documentsById = new DocumentIds();
+
+    //ids removed while the initial load runs, the load reads an older snapshot and must not bring them back
+    private Set<Long> removedWhileLoading;
+
+    public EmployeeSearchIndex(@Value("${employees.search.max-candidates:2000}") int maxCandidates) {
+        this.maxCandidates = maxCandidates;
+    }
+
+    //indexes every row the source hands out, writes arriving meanwhile win over the source's older rows
+    public void load(Consumer<Consumer<EmployeeView>> source) {
+        write(() -> removedWhileLoading = new HashSet<>());
+        try {
+            source.accept(employee -> write(() -> {
+                if(!removedWhileLoading.contains(employee.id())){
+                    index(employee);
+                }
+            }));
+        } finally {
+            write(() -> {
+                removedWhileLoading = null;
+                postings.values().forEach(Postings::trim);
+            });
+        }
+    }
+
+    public void put(Employee employee) {
+        put(EmployeeView.from(employee));
+    }
+
+    public void put(EmployeeView employee) {
+        write(() -> index(employee));
+        compactIfNeeded();
+    }
+
+    public void remove(long id) {
+        write(() -> {
+            if(removedWhileLoading != null){
+                removedWhileLoading.add(id);
+            }
+            int document = documentsById.get(id);
+            if(document >= 0){
+                tombstone(document);
+                documentsById.put(id, -1);
+            }
+        });
+        compactIfNeeded();
+    }
+
+    public List<EmployeeView> search(String query, int limit) {
+        List<String> words = new ArrayList<>(words(query));
+        if(words.isEmpty() || limit < 1){
+            return List.of();
+        }
+        Set<Long> grams = new LinkedHashSet<>();
+        for(String word : words){
+            queryGrams(word, grams::add);
+        }
+        return read(() -> {
+            List<Postings> lists = new ArrayList<>(grams.size());
+            for(Long gram : grams){
+                Postings list = postings.get(gram);
+                if(list == null){
+                    return List.of();
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+            int bestScore = 0;
+            for(String word : words){
+                bestScore += bestMatch(word);
+            }
+            return rank(lists, words, bestScore, limit);
+        });
+    }
+
+    public int size() {
+        return read(() -> documentCount - deletedCount);
+    }
+
+    public int grams() {
+        return read(() -> postings.size());
+    }
+
+    //approximate heap held by the index: posting lists, id map and documents, strings counted as compact Latin-1
+    public long estimatedBytes() {
+        return read(() -> {
+            long bytes = 12L * documentsById.keys.length;
+            for(Postings list : postings.values()){
+                //map node, boxed key, list object and its array
+                bytes += 32 + 24 + 24 + align(16 + 4L * list.documents.length);
+            }
+            bytes += align(16 + 8L * postings.size() * 4 / 3);
+            bytes += align(16 + 8L * documents.length) + deleted.size() / 8;
+            for(int document = 0; document < documentCount; document++){
+                EmployeeView employee = documents[document];
+                if(employee != null){
+                    bytes += 40 + stringBytes(employee.firstName()) + stringBytes(employee.lastName()) + stringBytes(employee.email());
+                }
+            }
+            return bytes;
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("employees.search.index.documents", this, EmployeeSearchIndex::size)
+                .description("Employees in the search index")
+                .register(registry);
+        Gauge.builder("employees.search.index.grams", this, EmployeeSearchIndex::grams)
+                .description("Distinct grams with a posting list")
+                .register(registry);
+        Gauge.builder("employees.search.index.size", this, EmployeeSearchIndex::estimatedBytes)
+                .description("Approximate heap held by the search index")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+    }
+
+    //the best match any document can have for the query word, judged by which of its grams are indexed at all
+    private int bestMatch(String word) {
+        if(word.length() >= 3 && !postings.containsKey(prefixGram(word))){
+            return INSIDE_WORD;
+        }
+        return postings.containsKey(endGram(word)) ? WHOLE_WORD : WORD_PREFIX;
+    }
+
+    private List<EmployeeView> rank(List<Postings> lists, List<String> words, int bestScore, int limit) {
+        Postings smallest = lists.get(0);
+        int[] cursors = new int[lists.size()];
+        Ranking ranking = new Ranking(limit);
+        int verified = 0;
+        int i = 0;
+        while(i < smallest.size && verified < maxCandidates){
+            int document = smallest.documents[i];
+            if(ranking.worstScore() >= bestScore){
+                //nothing scores higher any more, only a document numbered out of id order can win a tie
+                int next = outOfOrder.nextSetBit(document);
+                if(next < 0){
+                    break;
+                }
+                if(next != document){
+                    i = smallest.advance(i, next);
+                    continue;
+                }
+            }
+            i++;
+            if(deleted.get(document) || !inAllLists(lists, cursors, document)){
+                continue;
+            }
+            verified++;
+            //the grams only say the characters occur somewhere, check the words themselves
+            int score = score(documents[document], words);
+            if(score > 0){
+                ranking.offer(score, documents[document]);
+            }
+        }
+        return ranking.results();
+    }
+
+    private static boolean inAllLists(List<Postings> lists, int[] cursors, int document) {
+        for(int j = 1; j < lists.size(); j++){
+            Postings list = lists.get(j);
+            cursors[j] = list.advance(cursors[j], document);
+            if(cursors[j] == list.size || list.documents[cursors[j]] != document){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int score(EmployeeView employee, List<String> words) {
+        int total = 0;
+        for(String word : words){
+            int best = Math.max(match(employee.firstName(), word), Math.max(match(employee.lastName(), word), match(employee.email(), word)));
+            if(best == 0){
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    //how well the query word matches in the text: whole word, word prefix, inside a word or not at all
+    private static int match(String text, String word) {
+        int best = 0;
+        boolean insideAllowed = word.length() >= 3;
+        char first = word.charAt(0);
+        for(int i = 0; i + word.length() <= text.length() && best < WHOLE_WORD; i++){
+            //the first character alone rules out almost every position
+            if(Character.toLowerCase(text.charAt(i)) != first){
+                continue;
+            }
+            boolean wordStart = i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1));
+            if((!wordStart && !insideAllowed) || !text.regionMatches(true, i + 1, word, 1, word.length() - 1)){
+                continue;
+            }
+            if(!wordStart){
+                best = Math.max(best, INSIDE_WORD);
+                continue;
+            }
+            int end = i + word.length();
+            best = Math.max(best, end == text.length() || !Character.isLetterOrDigit(text.charAt(end)) ? WHOLE_WORD : WORD_PREFIX);
+        }
+        return best;
+    }
+
+    private void index(EmployeeView employee) {
+        int previous = documentsById.get(employee.id());
+        if(previous >= 0){
+            EmployeeView current = documents[previous];
+            //an older snapshot row, or a write that lost the race against a newer one
+            if(current.version() > employee.version() || current.equals(employee)){
+                return;
+            }
+            tombstone(previous);
+        }
+        boolean inOrder = employee.id() > highestId;
+        highestId = Math.max(highestId, employee.id());
+        documentsById.put(employee.id(), append(employee, !inOrder));
+    }
+
+    private int append(EmployeeView employee, boolean outOfIdOrder) {
+        int document = documentCount++;
+        if(document == documents.length){
+            documents = Arrays.copyOf(documents, documents.length * 2);
+        }
+        documents[document] = employee;
+        if(outOfIdOrder){
+            outOfOrder.set(document);
+        }
+        LongConsumer add = gram -> postings.computeIfAbsent(gram, key -> new Postings()).add(document);
+        documentGrams(employee.firstName(), add);
+        documentGrams(employee.lastName(), add);
+        documentGrams(employee.email(), add);
+        return document;
+    }
+
+    private void tombstone(int document) {
+        documents[document] = null;
+        deleted.set(document);
+        deletedCount++;
+    }
+
+    //renumbers the live documents once a quarter of the documents are tombstones. The numbering keeps their order,
+    //so every list is filtered into a new one and stays sorted; that happens without the lock, searches and writes
+    //only wait for the snapshot and the swap
+    private void compactIfNeeded() {
+        Compaction compaction = write(this::startCompaction);
+        if(compaction == null){
+            return;
+        }
+        try {
+            compaction.build();
+            write(() -> finishCompaction(compaction));
+        } finally {
+            write(() -> {
+                compacting = false;
+            });
+        }
+    }
+
+    private Compaction startCompaction() {
+        if(compacting || deletedCount < MIN_COMPACTION || deletedCount * 4L < documentCount){
+            return null;
+        }
+        compacting = true;
+        return new Compaction(Arrays.copyOf(documents, documentCount), (BitSet) deleted.clone(),
+                (BitSet) outOfOrder.clone(), postings);
+    }
+
+    //swaps in the compacted lists, then applies what was written since the snapshot: removals of snapshot
+    //documents and the documents appended after it
+    private void finishCompaction(Compaction compaction) {
+        int snapshotCount = compaction.snapshot.length;
+        EmployeeView[] previousDocuments = documents;
+        int previousCount = documentCount;
+        BitSet removedSince = (BitSet) deleted.clone();
+        removedSince.andNot(compaction.deletedAtSnapshot);
+        BitSet previousOutOfOrder = outOfOrder;
+        postings = compaction.postings;
+        documents = compaction.documents;
+        documentCount = compaction.documentCount;
+        documentsById = compaction.documentsById;
+        outOfOrder = compaction.outOfOrder;
+        deleted = new BitSet();
+        deletedCount = 0;
+        for(int document = removedSince.nextSetBit(0); document >= 0 && document < snapshotCount;
+            document = removedSince.nextSetBit(document + 1)){
+            tombstone(compaction.renumbered[document]);
+            //a later version appended since the snapshot maps the id again below
+            documentsById.put(compaction.snapshot[document].id(), -1);
+        }
+        for(int document = snapshotCount; document < previousCount; document++){
+            EmployeeView employee = previousDocuments[document];
+            if(employee != null){
+                documentsById.put(employee.id(), append(employee, previousOutOfOrder.get(document)));
+            }
+        }
+    }
+
+    //one and two character prefixes, all trigrams and the end of every word in the text
+    private static void documentGrams(String text, LongConsumer grams) {
+        //WORD_START stands in for the character before the word, which turns the first trigram into the prefix gram
+        char beforeLast = 0;
+        char last = WORD_START;
+        boolean inWord = false;
+        for(int i = 0; i <= text.length(); i++){
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if(!Character.isLetterOrDigit(c)){
+                if(inWord){
+                    grams.accept(gram(beforeLast, last, WORD_END));
+                }
+                last = WORD_START;
+                inWord = false;
+                continue;
+            }
+            c = Character.toLowerCase(c);
+            grams.accept(inWord ? gram(beforeLast, last, c) : gram(WORD_START, c, (char) 0));
+            beforeLast = last;
+            last = c;
+            inWord = true;
+        }
+    }
+
+    //a short query word is one prefix gram, a longer one all of its trigrams
+    private static void queryGrams(String word, LongConsumer grams) {
+        if(word.length() < 3){
+            grams.accept(prefixGram(word));
+            return;
+        }
+        for(int i = 0; i + 3 <= word.length(); i++){
+            grams.accept(gram(word.charAt(i), word.charAt(i + 1), word.charAt(i + 2)));
+        }
+    }
+
+    private static long prefixGram(String word) {
+        return gram(WORD_START, word.charAt(0), word.length() == 1 ? 0 : word.charAt(1));
+    }
+
+    private static long endGram(String word) {
+        int length = word.length();
+        return gram(length == 1 ? WORD_START : word.charAt(length - 2), word.charAt(length - 1), WORD_END);
+    }
+
+    private static Set<String> words(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        StringBuilder word = new StringBuilder();
+        for(int i = 0; i <= text.length(); i++){
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if(Character.isLetterOrDigit(c)){
+                word.append(Character.toLowerCase(c));
+            } else if(!word.isEmpty()){
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        return words;
+    }
+
+    private static long gram(char first, char second, char third) {
+        return ((long) first << 32) | ((long) second << 16) | third;
+    }
+
+    private static long stringBytes(String value) {
+        return 24 + align(16 + value.length());
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <T> T write(Supplier<T> action) {
+        lock.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <T> T read(Supplier<T> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //ascending document numbers of one gram; documents are only ever appended, so the array stays sorted
+    private static final class Postings {
+        private int[] documents = new int[4];
+
+        private int size;
+
+        private void add(int document) {
+            //a gram occurring twice in one employee is listed once
+            if(size > 0 && documents[size - 1] == document){
+                return;
+            }
+            if(size == documents.length){
+                documents = Arrays.copyOf(documents, size + (size >> 1) + 1);
+            }
+            documents[size++] = document;
+        }
+
+        //the first size documents of the list without the removed ones, renumbered; the source is only read
+        private static Postings renumbered(int[] documents, int size, int[] renumbered) {
+            Postings list = new Postings();
+            list.documents = new int[size];
+            for(int i = 0; i < size; i++){
+                int document = renumbered[documents[i]];
+                if(document >= 0){
+                    list.documents[list.size++] = document;
+                }
+            }
+            list.trim();
+            return list;
+        }
+
+        private void trim() {
+            if(size < documents.length){
+                documents = Arrays.copyOf(documents, size);
+            }
+        }
+
+        //index of the first document >= target at or after from: galloping, then binary search
+        private int advance(int from, int target) {
+            int low = from;
+            int high = from;
+            int step = 1;
+            while(high < size && documents[high] < target){
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            high = Math.min(high, size);
+            while(low < high){
+                int middle = (low + high) >>> 1;
+                if(documents[middle] < target){
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    //open addressing map from employee id to document number, -1 when absent or removed
+    private static final class DocumentIds {
+        private static final int EMPTY = Integer.MIN_VALUE;
+
+        private long[] keys = new long[1024];
+
+        private int[] values = newValues(1024);
+
+        private int used;
+
+        private int get(long id) {
+            int slot = slot(keys, values, id);
+            return values[slot] == EMPTY ? -1 : values[slot];
+        }
+
+        private void put(long id, int document) {
+            int slot = slot(keys, values, id);
+            if(values[slot] == EMPTY){
+                keys[slot] = id;
+                used++;
+            }
+            values[slot] = document;
+            if(used * 2 > keys.length){
+                resize();
+            }
+        }
+
+        //removed ids are dropped while resizing
+        private void resize() {
+            long[] previousKeys = keys;
+            int[] previousValues = values;
+            keys = new long[previousKeys.length * 2];
+            values = newValues(keys.length);
+            used = 0;
+            for(int i = 0; i < previousKeys.length; i++){
+                if(previousValues[i] >= 0){
+                    int slot = slot(keys, values, previousKeys[i]);
+                    keys[slot] = previousKeys[i];
+                    values[slot] = previousValues[i];
+                    used++;
+                }
+            }
+        }
+
+        private static int slot(long[] keys, int[] values, long id) {
+            int mask = keys.length - 1;
+            int slot = (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+            while(values[slot] != EMPTY && keys[slot] != id){
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private static int[] newValues(int length) {
+            int[] values = new int[length];
+            Arrays.fill(values, EMPTY);
+            return values;
+        }
+    }
+
+    //lists and documents rebuilt from a snapshot; appends never touch the part of an array a snapshot covers
+    private static final class Compaction {
+        private final EmployeeView[] snapshot;
+
+        private final BitSet deletedAtSnapshot;
+
+        private final BitSet outOfOrderAtSnapshot;
+
+        private final long[] grams;
+
+        private final int[][] lists;
+
+        private final int[] sizes;
+
+        private int[] renumbered;
+
+        private EmployeeView[] documents;
+
+        private int documentCount;
+
+        private BitSet outOfOrder;
+
+        private DocumentIds documentsById;
+
+        private Map<Long, Postings> postings;
+
+        //taken under the write lock
+        private Compaction(EmployeeView[] snapshot, BitSet deletedAtSnapshot, BitSet outOfOrderAtSnapshot,
+                           Map<Long, Postings> postings) {
+            this.snapshot = snapshot;
+            this.deletedAtSnapshot = deletedAtSnapshot;
+            this.outOfOrderAtSnapshot = outOfOrderAtSnapshot;
+            grams = new long[postings.size()];
+            lists = new int[postings.size()][];
+            sizes = new int[postings.size()];
+            int i = 0;
+            for(Map.Entry<Long, Postings> entry : postings.entrySet()){
+                grams[i] = entry.getKey();
+                lists[i] = entry.getValue().documents;
+                sizes[i] = entry.getValue().size;
+                i++;
+            }
+        }
+
+        //runs without the lock
+        private void build() {
+            renumbered = new int[snapshot.length];
+            documents = new EmployeeView[Math.max(1024, snapshot.length)];
+            outOfOrder = new BitSet();
+            documentsById = new DocumentIds();
+            for(int document = 0; document < snapshot.length; document++){
+                EmployeeView employee = snapshot[document];
+                if(employee == null){
+                    renumbered[document] = -1;
+                    continue;
+                }
+                if(outOfOrderAtSnapshot.get(document)){
+                    outOfOrder.set(documentCount);
+                }
+                documentsById.put(employee.id(), documentCount);
+                renumbered[document] = documentCount;
+                documents[documentCount++] = employee;
+            }
+            postings = new HashMap<>(grams.length * 4 / 3 + 1);
+            for(int i = 0; i < grams.length; i++){
+                Postings list = Postings.renumbered(lists[i], sizes[i], renumbered);
+                if(list.size > 0){
+                    postings.put(grams[i], list);
+                }
+            }
+        }
+    }
+
+    private static final class Ranking {
+        private final int[] scores;
+
+        private final EmployeeView[] employees;
+
+        private int size;
+
+        private Ranking(int limit) {
+            scores = new int[limit];
+            employees = new EmployeeView[limit];
+        }
+
+        private void offer(int score, EmployeeView employee) {
+            if(size == scores.length && !ranksBefore(score, employee, size - 1)){
+                return;
+            }
+            int position = Math.min(size, scores.length - 1);
+            while(position > 0 && ranksBefore(score, employee, position - 1)){
+                scores[position] = scores[position - 1];
+                employees[position] = employees[position - 1];
+                position--;
+            }
+            scores[position] = score;
+            employees[position] = employee;
+            size = Math.min(size + 1, scores.length);
+        }
+
+        private boolean ranksBefore(int score, EmployeeView employee, int position) {
+            return score > scores[position] || (score == scores[position] && employee.id() < employees[position].id());
+        }
+
+        private int worstScore() {
+            return size == scores.length ? scores[size - 1] : 0;
+        }
+
+        private List<EmployeeView> results() {
+            return List.of(Arrays.copyOf(employees, size));
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.springtestproject.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills the search index from the employees table at startup. Runners complete before the application reports
+ * ready, so /actuator/health/readiness only turns UP once search covers every employee.
+ */
+@Slf4j
+@Component
+public class EmployeeSearchIndexLoader implements ApplicationRunner {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        employeeSearchIndex.load(employeeService::streamAllEmployees);
+        log.info("Employee search index loaded in {} ms: {} employees, {} grams, about {} MB",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), employeeSearchIndex.size(),
+                employeeSearchIndex.grams(), employeeSearchIndex.estimatedBytes() >> 20);
+    }
+}
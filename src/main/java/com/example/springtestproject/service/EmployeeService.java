@@ -1,16 +1,46 @@
 package com.example.springtestproject.service;
 
 import com.example.springtestproject.model.Employee;
+import com.example.springtestproject.model.EmployeePage;
+import com.example.springtestproject.model.EmployeePatch;
+import com.example.springtestproject.model.EmployeeView;
+import com.example.springtestproject.model.EmployeesVersion;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EmployeeService {
+    int MAX_PAGE_SIZE = 1000;
+    int MAX_BULK_SIZE = 10000;
+    int MAX_SEARCH_RESULTS = 100;
+
     Employee saveEmployee(Employee employee);
-    List<Employee> getAllEmployee();
+
+    List<Employee> saveAllEmployees(List<Employee> employees);
+
+    List<EmployeeView> getAllEmployee();
+
+    EmployeesVersion getEmployeesVersion();
+
+    EmployeePage getEmployeesPage(long after, int limit);
+
+    void streamAllEmployees(Consumer<EmployeeView> action);
+
     Optional<Employee> getEmployeeById(long id);
 
+    Optional<Employee> getEmployeeByEmail(String email);
+
+    List<EmployeeView> searchEmployeesByName(String lastNamePrefix, String firstNamePrefix, int page, int size);
+
+    List<EmployeeView> searchEmployees(String query, int limit);
+
     Employee updateEmployee(Employee employee);
 
-    void deleteEmployee(long id);
+    Optional<Employee> patchEmployee(long id, EmployeePatch patch);
+
+    boolean deleteEmployee(long id);
+
+    int deleteEmployees(Collection<Long> ids);
 }
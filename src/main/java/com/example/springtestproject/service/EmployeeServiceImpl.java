@@ -1,46 +1,263 @@
 package com.example.springtestproject.service;
 
+import com.example.springtestproject.datasource.ReadYourWrites;
 import com.example.springtestproject.exception.ResourceNotFoundException;
 import com.example.springtestproject.model.Employee;
+import com.example.springtestproject.model.EmployeePage;
+import com.example.springtestproject.model.EmployeePatch;
+import com.example.springtestproject.model.EmployeeSummary;
+import com.example.springtestproject.model.EmployeeView;
+import com.example.springtestproject.model.EmployeesVersion;
 import com.example.springtestproject.repository.EmployeeRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = EmployeeServiceImpl.TIMER_NAME, histogram = true, percentiles = {0.5, 0.95, 0.99})
 public class EmployeeServiceImpl implements EmployeeService{
+    public static final String TIMER_NAME = "employee.service";
+
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @Autowired
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    //Integer.MIN_VALUE switches MySQL Connector/J to row-by-row streaming
+    @Value("${employees.stream.fetch-size:" + Integer.MIN_VALUE + "}")
+    private int streamFetchSize;
+
     @Override
     public Employee saveEmployee(Employee employee) {
-        Optional<Employee> savedEmployee= employeeRepository.findByEmail(employee.getEmail());
-        if(savedEmployee.isPresent()){
-            throw new ResourceNotFoundException("Employee already exists with given email" + employee.getEmail());
+        //the unique index on email detects duplicates, so a create is a single insert and cannot race
+        Employee createdEmployee;
+        try {
+            createdEmployee = employeeRepository.saveAndFlush(employee);
+        } catch (DataIntegrityViolationException e) {
+            if(!isDuplicateEmail(e)){
+                throw e;
+            }
+            throw new ResourceNotFoundException("Employee already exists with given email" + employee.getEmail(), e);
+        }
+        employeeCache.put(createdEmployee);
+        employeeSearchIndex.put(createdEmployee);
+        return createdEmployee;
+    }
+
+    @Override
+    @Transactional
+    public List<Employee> saveAllEmployees(List<Employee> employees) {
+        Set<String> emails = new HashSet<>();
+        List<String> duplicates = new ArrayList<>();
+        for(Employee employee : employees){
+            if(!emails.add(employee.getEmail())){
+                duplicates.add(employee.getEmail());
+            }
+            //always persist instead of merge, a client supplied id would cost a select per row
+            employee.setId(0);
+        }
+        duplicates.addAll(employeeRepository.findExistingEmails(emails));
+        if(!duplicates.isEmpty()){
+            throw new ResourceNotFoundException("Employees already exist with given emails" + duplicates);
         }
-        return employeeRepository.save(employee);
+        try {
+            List<Employee> savedEmployees = employeeRepository.saveAllAndFlush(employees);
+            afterCommit(() -> savedEmployees.forEach(employeeSearchIndex::put));
+            return savedEmployees;
+        } catch (DataIntegrityViolationException e) {
+            if(!isDuplicateEmail(e)){
+                throw e;
+            }
+            throw new ResourceNotFoundException("Employees already exist with given emails" + emails, e);
+        }
+    }
+
+    //list reads select straight into EmployeeView records: no managed entities, snapshots or dirty checking
+    @Override
+    @Transactional(readOnly = true)
+    public List<EmployeeView> getAllEmployee() {
+        return employeeRepository.findAllViews();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeesVersion getEmployeesVersion() {
+        return employeeRepository.findEmployeesVersion();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeePage getEmployeesPage(long after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        //one extra row tells us whether a next page exists without a count query
+        List<EmployeeView> employees = employeeRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(pageSize + 1), EmployeeView.class);
+        if(employees.size() <= pageSize){
+            return new EmployeePage(employees, null);
+        }
+        List<EmployeeView> content = employees.subList(0, pageSize);
+        return new EmployeePage(content, content.get(pageSize - 1).id());
     }
 
     @Override
-    public List<Employee> getAllEmployee() {
-        return employeeRepository.findAll();
+    @Transactional(readOnly = true)
+    public void streamAllEmployees(Consumer<EmployeeView> action) {
+        //projections never enter the persistence context, so memory stays flat without detaching
+        try (Stream<EmployeeView> employees = entityManager
+                .createQuery("select new com.example.springtestproject.model.EmployeeView(e.id, e.firstName, e.lastName, e.email, e.version) " +
+                        "from Employee e order by e.id", EmployeeView.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, streamFetchSize)
+                .getResultStream()) {
+            employees.forEach(action);
+        }
     }
 
+    //single reads stay entities because PUT writes them back; hits come from the cache without a transaction,
+    //misses load through the repository's read-only transaction and only detached copies are handed out.
+    //Misses are loaded from the primary: a row read from a lagging replica would stay cached for the whole ttl
     @Override
     public Optional<Employee> getEmployeeById(long id) {
-        return employeeRepository.findById(id);
+        return employeeCache.getById(id, employeeId -> ReadYourWrites.onPrimary(() -> employeeRepository.findById(employeeId)));
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeByEmail(String email) {
+        return employeeCache.getByEmail(email, employeeEmail -> ReadYourWrites.onPrimary(() -> employeeRepository.findByEmail(employeeEmail)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EmployeeView> searchEmployeesByName(String lastNamePrefix, String firstNamePrefix, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<EmployeeSummary> employees = employeeRepository.searchByName(EmployeeRepository.escapeLike(lastNamePrefix),
+                EmployeeRepository.escapeLike(firstNamePrefix), PageRequest.of(Math.max(page, 0), pageSize));
+        return employees.stream().map(EmployeeView::from).toList();
+    }
+
+    //served from the in-memory index, no database access
+    @Override
+    public List<EmployeeView> searchEmployees(String query, int limit) {
+        return employeeSearchIndex.search(query, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)));
     }
 
     @Override
     public Employee updateEmployee(Employee updateEmployee) {
-        return employeeRepository.save(updateEmployee);
+        //the unique index on email also guards updates, flushed here so a taken email maps like on create
+        Employee updatedEmployee;
+        try {
+            updatedEmployee = employeeRepository.saveAndFlush(updateEmployee);
+        } catch (DataIntegrityViolationException e) {
+            if(!isDuplicateEmail(e)){
+                throw e;
+            }
+            throw new ResourceNotFoundException("Employee already exists with given email" + updateEmployee.getEmail(), e);
+        }
+        employeeCache.put(updatedEmployee);
+        employeeSearchIndex.put(updatedEmployee);
+        return updatedEmployee;
+    }
+
+    @Override
+    @Transactional
+    public Optional<Employee> patchEmployee(long id, EmployeePatch patch) {
+        Optional<Employee> patchedEmployee = employeeRepository.findById(id).map(employee -> {
+            if(patch.getVersion() != null && patch.getVersion() != employee.getVersion()){
+                throw new ObjectOptimisticLockingFailureException(Employee.class, id);
+            }
+            if(patch.getFirstName() != null){
+                employee.setFirstName(patch.getFirstName());
+            }
+            if(patch.getLastName() != null){
+                employee.setLastName(patch.getLastName());
+            }
+            if(patch.getEmail() != null){
+                employee.setEmail(patch.getEmail());
+            }
+            return employee;
+        });
+        //dirty checking emits one UPDATE of the changed columns guarded by the version, flush so conflicts surface here
+        try {
+            employeeRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            if(!isDuplicateEmail(e)){
+                throw e;
+            }
+            throw new ResourceNotFoundException("Employee already exists with given email" + patch.getEmail(), e);
+        }
+        patchedEmployee.ifPresent(employee -> afterCommit(() -> {
+            employeeCache.put(employee);
+            employeeSearchIndex.put(employee);
+        }));
+        return patchedEmployee;
+    }
+
+    @Override
+    public boolean deleteEmployee(long id) {
+        boolean deleted = employeeRepository.deleteEmployeeById(id) > 0;
+        employeeCache.evict(id);
+        employeeSearchIndex.remove(id);
+        return deleted;
     }
 
     @Override
-    public void deleteEmployee(long id) {
-        Employee employeeToDelete = getEmployeeById(id).get();
-        employeeRepository.delete(employeeToDelete);
+    public int deleteEmployees(Collection<Long> ids) {
+        if(ids.isEmpty()){
+            return 0;
+        }
+        int deleted = employeeRepository.deleteEmployeesByIdIn(ids);
+        ids.forEach(employeeCache::evict);
+        ids.forEach(employeeSearchIndex::remove);
+        return deleted;
+    }
+
+    private static boolean isDuplicateEmail(DataIntegrityViolationException e) {
+        for(Throwable cause = e; cause != null; cause = cause.getCause()){
+            if(cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null){
+                return violation.getConstraintName().toLowerCase(Locale.ROOT)
+                        .contains(Employee.EMAIL_UNIQUE_CONSTRAINT);
+            }
+        }
+        return false;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 }
@@ -0,0 +1,19 @@
+-- matches the schema ddl-auto=update creates, so existing databases can be baselined at version 1
+create table employee_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into employee_seq values (1);
+
+create table employees (
+    id bigint not null,
+    version bigint not null,
+    email varchar(255) not null,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_employees_last_first on employees (last_name, first_name);
+
+alter table employees add constraint uk_employees_email unique (email);
@@ -1,14 +1,61 @@
 package com.example.springtestproject;
 
+import com.example.springtestproject.datasource.ConnectionTracker;
+import com.example.springtestproject.integration.AbstractionBaseTest;
+import com.example.springtestproject.integration.IntegrationTest;
+import com.example.springtestproject.repository.EmployeeRepository;
+import com.zaxxer.hikari.HikariDataSource;
 import org.junit.jupiter.api.Test;
-import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.transaction.support.TransactionTemplate;
 
-@SpringBootTest
-class SpringTestProjectApplicationTests {
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@IntegrationTest
+class SpringTestProjectApplicationTests extends AbstractionBaseTest {
+
+    @Autowired
+    private HikariDataSource dataSource;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ConnectionTracker connectionTracker;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationAvailability applicationAvailability;
 
     @Test
     void contextLoads() {
 
     }
 
+    //the warm-up runner completes before readiness is reported
+    @Test
+    void poolWarmedUpBeforeReady() {
+        assertThat(applicationAvailability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+        assertThat(dataSource.getHikariPoolMXBean().getTotalConnections()).isGreaterThanOrEqualTo(dataSource.getMinimumIdle());
+    }
+
+    @Test
+    void connectionsTrackedForPoolDiagnostics() {
+        //the transaction holds its connection between repository calls, attributed to the latest one
+        transactionTemplate.executeWithoutResult(status -> {
+            employeeRepository.count();
+            assertThat(connectionTracker.snapshot())
+                    .extracting(ConnectionTracker.HeldConnection::repositoryMethod, ConnectionTracker.HeldConnection::holder)
+                    .contains(tuple("EmployeeRepository.count", "SpringTestProjectApplicationTests.connectionsTrackedForPoolDiagnostics"));
+            employeeRepository.findAll();
+            assertThat(ConnectionTracker.describe(connectionTracker.snapshot()))
+                    .contains("EmployeeRepository.findAll in SpringTestProjectApplicationTests.connectionsTrackedForPoolDiagnostics");
+        });
+        assertThat(connectionTracker.snapshot()).isEmpty();
+    }
 }
@@ -0,0 +1,113 @@
+package com.example.springtestproject.admission;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private AdaptiveConcurrencyLimit limit;
+
+    private long clock;
+
+    @BeforeEach
+    public void setup(){
+        limit = new AdaptiveConcurrencyLimit(10, 2, 100, 2.0, 0.5);
+        clock = 0;
+    }
+
+    @DisplayName("RejectsAboveLimit")
+    @Test
+    public void givenLimitInUse_whenAcquire_thenRejectedUntilReleased(){
+        //given
+        for(int i = 0; i < 10; i++){
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+
+        //when
+        boolean acquired = limit.tryAcquire();
+
+        //then
+        assertThat(acquired).isFalse();
+        limit.release();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.getInFlight()).isEqualTo(10);
+    }
+
+    @DisplayName("GrowsWhileLatencyHolds")
+    @Test
+    public void givenSteadyLatencyAtFullUse_whenSamplesComplete_thenLimitGrows(){
+        //when
+        for(int round = 0; round < 50; round++){
+            runRound(limit.getLimit(), MILLI);
+        }
+
+        //then
+        assertThat(limit.getLimit()).isGreaterThan(10);
+    }
+
+    @DisplayName("IdleServiceKeepsLimit")
+    @Test
+    public void givenSteadyLatencyAtLowUse_whenSamplesComplete_thenLimitUnchanged(){
+        //when
+        for(int round = 0; round < 100; round++){
+            runRound(1, MILLI);
+        }
+
+        //then
+        assertThat(limit.getLimit()).isEqualTo(10);
+    }
+
+    @DisplayName("CutOncePerRoundTripWhenLatencyRises")
+    @Test
+    public void givenRisingLatency_whenSamplesComplete_thenLimitCutOncePerRound(){
+        //given
+        for(int round = 0; round < 20; round++){
+            runRound(10, MILLI);
+        }
+        int before = limit.getLimit();
+
+        //when a whole round of concurrent requests is slow, they started before any cut
+        runRound(before, 50 * MILLI);
+
+        //then
+        assertThat(limit.getLimit()).isEqualTo(before / 2);
+    }
+
+    @DisplayName("NeverBelowMinimum")
+    @Test
+    public void givenSustainedHighLatency_whenManyRounds_thenLimitStopsAtMinimum(){
+        //given
+        runRound(10, MILLI);
+
+        //when
+        for(int round = 0; round < 20; round++){
+            runRound(limit.getLimit(), 100 * MILLI);
+        }
+
+        //then
+        assertThat(limit.getLimit()).isEqualTo(2);
+    }
+
+    //starts the given number of requests together and completes them after the latency
+    private void runRound(int requests, long latencyNanos) {
+        long start = clock;
+        int acquired = 0;
+        for(int i = 0; i < requests; i++){
+            if(limit.tryAcquire()){
+                acquired++;
+            }
+        }
+        clock += latencyNanos;
+        for(int i = 0; i < acquired; i++){
+            limit.release(start, clock);
+        }
+        clock++;
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.springtestproject.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AdmissionControlFilterTest {
+
+    private SimpleMeterRegistry registry;
+
+    private AtomicLong now;
+
+    private AdaptiveConcurrencyLimit concurrencyLimit;
+
+    private AdmissionControlFilter filter;
+
+    @BeforeEach
+    public void setup(){
+        registry = new SimpleMeterRegistry();
+        now = new AtomicLong(1);
+        //one request per second per client, no burst
+        concurrencyLimit = new AdaptiveConcurrencyLimit(2, 1, 10, 2.0, 0.9);
+        filter = new AdmissionControlFilter(new TokenBucketRateLimiter(1, 1, 1000, now::get), concurrencyLimit,
+                "X-Client-Id", registry);
+    }
+
+    @DisplayName("ClientOverRateGets429")
+    @Test
+    public void givenClientOverRate_whenFiltered_then429WithRetryAfter() throws Exception{
+        //given
+        filter.doFilter(request("client-1"), new MockHttpServletResponse(), new MockFilterChain());
+
+        //when
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request("client-1"), response, chain);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(chain.getRequest()).isNull();
+        assertThat(registry.get("employees.admission.rejected").tag("reason", "rate-limit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @DisplayName("ClientsKeyedByHeaderOrAddress")
+    @Test
+    public void givenDifferentClients_whenFiltered_thenEachHasOwnBucket() throws Exception{
+        //given
+        filter.doFilter(request("client-1"), new MockHttpServletResponse(), new MockFilterChain());
+
+        //when
+        MockHttpServletResponse otherClient = new MockHttpServletResponse();
+        filter.doFilter(request("client-2"), otherClient, new MockFilterChain());
+        MockHttpServletResponse byAddress = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/employees"), byAddress, new MockFilterChain());
+
+        //then
+        assertThat(otherClient.getStatus()).isEqualTo(200);
+        assertThat(byAddress.getStatus()).isEqualTo(200);
+    }
+
+    @DisplayName("NoRateLimiterOnlyConcurrencyLimit")
+    @Test
+    public void givenNoRateLimiter_whenSameClientRepeats_thenAdmitted() throws Exception{
+        //given
+        filter = new AdmissionControlFilter(null, concurrencyLimit, "X-Client-Id", new SimpleMeterRegistry());
+        filter.doFilter(request("client-1"), new MockHttpServletResponse(), new MockFilterChain());
+
+        //when
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("client-1"), response, new MockFilterChain());
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    @DisplayName("SaturatedServiceGets503")
+    @Test
+    public void givenLimitInUse_whenFiltered_then503WithRetryAfter() throws Exception{
+        //given
+        concurrencyLimit.tryAcquire();
+        concurrencyLimit.tryAcquire();
+
+        //when
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request("client-1"), response, chain);
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(response.getContentAsString()).isEqualTo("Employee service is saturated, retry later");
+        assertThat(chain.getRequest()).isNull();
+        assertThat(registry.get("employees.admission.rejected").tag("reason", "concurrency-limit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @DisplayName("AsyncRequestHoldsSlotUntilComplete")
+    @Test
+    public void givenAsyncRequest_whenFiltered_thenSlotReleasedOnCompletion() throws Exception{
+        //given
+        MockHttpServletRequest request = request("client-1");
+        request.setAsyncSupported(true);
+        FilterChain chain = (req, res) -> req.startAsync();
+
+        //when
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        //then
+        assertThat(concurrencyLimit.getInFlight()).isEqualTo(1);
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+        assertThat(concurrencyLimit.getInFlight()).isZero();
+    }
+
+    @DisplayName("SlotReleasedWhenChainFails")
+    @Test
+    public void givenFailingChain_whenFiltered_thenSlotReleased(){
+        //given
+        FilterChain chain = (req, res) -> {
+            throw new IllegalStateException("boom");
+        };
+
+        //when
+        assertThatThrownBy(() -> filter.doFilter(request("client-1"), new MockHttpServletResponse(), chain))
+                .isInstanceOf(IllegalStateException.class);
+
+        //then
+        assertThat(concurrencyLimit.getInFlight()).isZero();
+        assertThat(concurrencyLimit.getLimit()).isEqualTo(2);
+    }
+
+    private static MockHttpServletRequest request(String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/employees");
+        request.addHeader("X-Client-Id", client);
+        return request;
+    }
+}
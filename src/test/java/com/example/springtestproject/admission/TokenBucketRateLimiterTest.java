@@ -0,0 +1,117 @@
+package com.example.springtestproject.admission;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenBucketRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private AtomicLong now;
+
+    private TokenBucketRateLimiter rateLimiter;
+
+    @BeforeEach
+    public void setup(){
+        now = new AtomicLong(SECOND);
+        //10 per second, bursts of 5
+        rateLimiter = new TokenBucketRateLimiter(10, 5, 1000, now::get);
+    }
+
+    @DisplayName("BurstAdmittedThenRejectedWithWait")
+    @Test
+    public void givenFullBucket_whenBurstExceeded_thenRejectedUntilNextToken(){
+        //given
+        for(int i = 0; i < 5; i++){
+            assertThat(rateLimiter.tryAcquire("client-1")).isZero();
+        }
+
+        //when
+        long wait = rateLimiter.tryAcquire("client-1");
+
+        //then
+        assertThat(wait).isEqualTo(SECOND / 10);
+        now.addAndGet(wait);
+        assertThat(rateLimiter.tryAcquire("client-1")).isZero();
+        assertThat(rateLimiter.tryAcquire("client-1")).isPositive();
+    }
+
+    @DisplayName("ClientsHaveSeparateBuckets")
+    @Test
+    public void givenEmptyBucket_whenOtherClientAcquires_thenAdmitted(){
+        //given
+        for(int i = 0; i < 5; i++){
+            rateLimiter.tryAcquire("client-1");
+        }
+
+        //when
+        long wait = rateLimiter.tryAcquire("client-2");
+
+        //then
+        assertThat(rateLimiter.tryAcquire("client-1")).isPositive();
+        assertThat(wait).isZero();
+    }
+
+    @DisplayName("IdleBucketRefillsToBurstOnly")
+    @Test
+    public void givenIdleClient_whenTimePasses_thenBurstAvailableButNoMore(){
+        //given
+        for(int i = 0; i < 5; i++){
+            rateLimiter.tryAcquire("client-1");
+        }
+
+        //when
+        now.addAndGet(60 * SECOND);
+
+        //then
+        for(int i = 0; i < 5; i++){
+            assertThat(rateLimiter.tryAcquire("client-1")).isZero();
+        }
+        assertThat(rateLimiter.tryAcquire("client-1")).isPositive();
+    }
+
+    @DisplayName("ConcurrentAcquiresNeverExceedBurst")
+    @Test
+    public void givenConcurrentCallers_whenAcquireSameClient_thenExactlyBurstAdmitted() throws Exception{
+        //given
+        rateLimiter = new TokenBucketRateLimiter(1, 100, 1000, now::get);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Callable<Integer>> callers = new ArrayList<>();
+        for(int i = 0; i < 8; i++){
+            callers.add(() -> {
+                int admitted = 0;
+                for(int j = 0; j < 50; j++){
+                    if(rateLimiter.tryAcquire("client-1") == 0){
+                        admitted++;
+                    }
+                }
+                return admitted;
+            });
+        }
+
+        //when
+        int admitted = 0;
+        try {
+            for(Future<Integer> result : executor.invokeAll(callers)){
+                admitted += result.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        //then
+        assertThat(admitted).isEqualTo(100);
+    }
+}
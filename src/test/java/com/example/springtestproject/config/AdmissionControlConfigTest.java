@@ -0,0 +1,46 @@
+package com.example.springtestproject.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdmissionControlConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+            .withUserConfiguration(AdmissionControlConfig.class);
+
+    @DisplayName("PoolLargerThanInitialLimitStarts")
+    @Test
+    public void givenPoolLargerThanInitialLimit_whenStarted_thenMinLimitCappedAtInitialLimit(){
+        contextRunner.withPropertyValues("spring.datasource.hikari.maximum-pool-size=50",
+                        "employees.admission.concurrency.initial-limit=20")
+                .run(context -> {
+                    assertThat(context).hasNotFailed();
+                    assertThat(context.getBean(MeterRegistry.class).get("employees.admission.limit").gauge().value())
+                            .isEqualTo(20);
+                });
+    }
+
+    @DisplayName("RateLimitOptIn")
+    @Test
+    public void givenRateLimitEnabledOrNot_whenStarted_thenClientBucketsOnlyWhenEnabled(){
+        contextRunner.run(context -> assertThat(context.getBean(MeterRegistry.class)
+                .find("employees.admission.clients").gauge()).isNull());
+        contextRunner.withPropertyValues("employees.admission.rate-limit.enabled=true")
+                .run(context -> assertThat(context.getBean(MeterRegistry.class)
+                        .find("employees.admission.clients").gauge()).isNotNull());
+    }
+
+    @DisplayName("ExplicitMinLimitAboveInitialLimitRejected")
+    @Test
+    public void givenMinLimitAboveInitialLimit_whenStarted_thenFails(){
+        contextRunner.withPropertyValues("employees.admission.concurrency.min-limit=30",
+                        "employees.admission.concurrency.initial-limit=20")
+                .run(context -> assertThat(context).hasFailed());
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.springtestproject.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FirstRequestTimingFilterTest {
+
+    private SimpleMeterRegistry registry;
+
+    private FirstRequestTimingFilter filter;
+
+    private ApplicationReadyEvent readyEvent;
+
+    @BeforeEach
+    public void setup(){
+        registry = new SimpleMeterRegistry();
+        readyEvent = new ApplicationReadyEvent(new SpringApplication(), new String[0], null, Duration.ZERO);
+        filter = new FirstRequestTimingFilter(registry, System.currentTimeMillis() - 5_000);
+    }
+
+    private void ready(){
+        filter.onApplicationEvent(readyEvent);
+    }
+
+    private void get(FilterChain chain) throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/employees"), new MockHttpServletResponse(), chain);
+    }
+
+    @DisplayName("NoValueBeforeFirstRequest")
+    @Test
+    public void givenNoRequest_whenReadGauge_thenNaN(){
+        assertThat(registry.get(FirstRequestTimingFilter.METRIC_NAME).timeGauge().value(TimeUnit.MILLISECONDS)).isNaN();
+    }
+
+    @DisplayName("RequestsBeforeReadyNotCounted")
+    @Test
+    public void givenRequestBeforeReady_whenFiltered_thenNothingRecorded() throws Exception{
+        get(new MockFilterChain());
+
+        assertThat(filter.getFirstRequestMillis()).isEqualTo(-1);
+    }
+
+    @DisplayName("OnlyFirstRequestRecorded")
+    @Test
+    public void givenTwoRequests_whenFiltered_thenFirstRequestTimeKept() throws Exception{
+        //given
+        ready();
+        get(new MockFilterChain());
+        long first = filter.getFirstRequestMillis();
+
+        //when
+        Thread.sleep(20);
+        get(new MockFilterChain());
+
+        //then
+        assertThat(first).isGreaterThanOrEqualTo(5_000);
+        assertThat(filter.getFirstRequestMillis()).isEqualTo(first);
+        assertThat(registry.get(FirstRequestTimingFilter.METRIC_NAME).timeGauge().value(TimeUnit.MILLISECONDS)).isEqualTo(first);
+    }
+
+    @DisplayName("IdleTimeAfterReadyNotCounted")
+    @Test
+    public void givenIdleBeforeFirstRequest_whenFiltered_thenReadyTimePlusHandlingTime() throws Exception{
+        //given
+        ready();
+        Thread.sleep(500);
+
+        //when
+        get((request, response) -> sleep(50));
+
+        //then
+        assertThat(filter.getFirstRequestMillis()).isBetween(5_050L, 5_400L);
+    }
+
+    @DisplayName("AsyncRequestTimedUntilComplete")
+    @Test
+    public void givenAsyncRequest_whenCompleted_thenRecordedAtCompletion() throws Exception{
+        //given
+        ready();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/employees/async/1");
+        request.setAsyncSupported(true);
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+        assertThat(filter.getFirstRequestMillis()).isEqualTo(-1);
+
+        //when
+        sleep(50);
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+
+        //then
+        assertThat(filter.getFirstRequestMillis()).isGreaterThanOrEqualTo(5_050);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
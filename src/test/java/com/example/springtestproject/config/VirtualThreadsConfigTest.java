@@ -0,0 +1,34 @@
+package com.example.springtestproject.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VirtualThreadsConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(VirtualThreadsConfig.class);
+
+    @DisplayName("VirtualThreadsNeedJava21")
+    @Test
+    public void givenVirtualThreadsEnabled_whenStarted_thenFailsBelowJava21(){
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=true")
+                .run(context -> {
+                    if(Runtime.version().feature() < 21){
+                        assertThat(context).hasFailed();
+                        assertThat(context.getStartupFailure()).hasRootCauseMessage("Expected a Java 21+ runtime for "
+                                + "spring.threads.virtual.enabled=true, running on Java " + Runtime.version().feature());
+                    } else {
+                        assertThat(context).hasNotFailed();
+                    }
+                });
+    }
+
+    @DisplayName("PlatformThreadsStartOnAnyJava")
+    @Test
+    public void givenVirtualThreadsNotEnabled_whenStarted_thenStarts(){
+        contextRunner.run(context -> assertThat(context).hasNotFailed());
+    }
+}
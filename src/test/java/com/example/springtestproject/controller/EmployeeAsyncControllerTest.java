@@ -0,0 +1,158 @@
+package com.example.springtestproject.controller;
+
+import com.example.springtestproject.model.Employee;
+import com.example.springtestproject.model.EmployeePatch;
+import com.example.springtestproject.service.EmployeeAsyncService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(EmployeeAsyncController.class)
+public class EmployeeAsyncControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeAsyncService employeeAsyncService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DisplayName("GetEmployeeByIdAsync")
+    @Test
+    public void givenEmployeeId_whenGetEmployeeByIdAsync_thenEmployeeObject() throws Exception {
+        //given
+        Employee employee = Employee.builder()
+                .id(1L)
+                .email("dubrovskay.7830@mail.ru")
+                .firstName("Philip")
+                .lastName("Dubrovskiy")
+                .build();
+        given(employeeAsyncService.getEmployeeById(1L)).willReturn(CompletableFuture.completedFuture(Optional.of(employee)));
+        //when
+        ResultActions started = mockMvc.perform(get("/api/employees/async/{id}", 1L))
+                .andExpect(request().asyncStarted());
+        ResultActions response = mockMvc.perform(asyncDispatch(started.andReturn()));
+        //then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email", is(employee.getEmail())));
+    }
+
+    @DisplayName("GetEmployeeByIdAsyncNegativeScenario")
+    @Test
+    public void givenNotExistEmployeeId_whenGetEmployeeByIdAsync_thenReturnNotFound() throws Exception {
+        //given
+        given(employeeAsyncService.getEmployeeById(2L)).willReturn(CompletableFuture.completedFuture(Optional.empty()));
+        //when
+        ResultActions started = mockMvc.perform(get("/api/employees/async/{id}", 2L))
+                .andExpect(request().asyncStarted());
+        ResultActions response = mockMvc.perform(asyncDispatch(started.andReturn()));
+        //then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isNotFound());
+    }
+
+    @DisplayName("GetEmployeeByIdAsyncSaturated")
+    @Test
+    public void givenSaturatedExecutor_whenGetEmployeeByIdAsync_thenReturnServiceUnavailable() throws Exception {
+        //given
+        given(employeeAsyncService.getEmployeeById(anyLong())).willThrow(new TaskRejectedException("queue full"));
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees/async/{id}", 1L));
+        //then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @DisplayName("PatchEmployeeAsyncConflict")
+    @Test
+    public void givenStaleVersion_whenPatchEmployeeAsync_thenReturnConflict() throws Exception {
+        //given
+        given(employeeAsyncService.patchEmployee(anyLong(), any(EmployeePatch.class)))
+                .willReturn(CompletableFuture.failedFuture(new ObjectOptimisticLockingFailureException(Employee.class, 1L)));
+        //when
+        ResultActions started = mockMvc.perform(patch("/api/employees/async/{id}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(EmployeePatch.builder().firstName("Phil").version(0L).build())))
+                .andExpect(request().asyncStarted());
+        ResultActions response = mockMvc.perform(asyncDispatch(started.andReturn()));
+        //then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isConflict());
+    }
+
+    @DisplayName("GetEmployeeByIdAsyncNotModified")
+    @Test
+    public void givenCurrentETag_whenGetEmployeeByIdAsync_thenReturnNotModified() throws Exception {
+        //given
+        Employee employee = Employee.builder()
+                .id(1L)
+                .email("dubrovskay.7830@mail.ru")
+                .firstName("Philip")
+                .lastName("Dubrovskiy")
+                .version(3L)
+                .build();
+        given(employeeAsyncService.getEmployeeById(1L)).willReturn(CompletableFuture.completedFuture(Optional.of(employee)));
+        //when
+        ResultActions stale = mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/employees/async/{id}", 1L)
+                        .header("If-None-Match", "\"1-2\""))
+                .andExpect(request().asyncStarted()).andReturn()));
+        ResultActions current = mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/employees/async/{id}", 1L)
+                        .header("If-None-Match", "\"1-3\""))
+                .andExpect(request().asyncStarted()).andReturn()));
+        //then
+        stale.andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-3\""));
+        current.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isNotModified());
+    }
+
+    @DisplayName("PatchEmployeeAsyncETag")
+    @Test
+    public void givenPatch_whenPatchEmployeeAsync_thenReturnNewVersionETag() throws Exception {
+        //given
+        Employee patched = Employee.builder()
+                .id(1L)
+                .email("dubrovskay.7830@mail.ru")
+                .firstName("Phil")
+                .lastName("Dubrovskiy")
+                .version(1L)
+                .build();
+        given(employeeAsyncService.patchEmployee(anyLong(), any(EmployeePatch.class)))
+                .willReturn(CompletableFuture.completedFuture(Optional.of(patched)));
+        //when
+        ResultActions started = mockMvc.perform(patch("/api/employees/async/{id}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(EmployeePatch.builder().firstName("Phil").version(0L).build())))
+                .andExpect(request().asyncStarted());
+        ResultActions response = mockMvc.perform(asyncDispatch(started.andReturn()));
+        //then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-1\""));
+    }
+}
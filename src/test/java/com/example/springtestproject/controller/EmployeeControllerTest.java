@@ -1,6 +1,14 @@
 package com.example.springtestproject.controller;
 
 import com.example.springtestproject.model.Employee;
+import com.example.springtestproject.model.EmployeeFileFormat;
+import com.example.springtestproject.model.EmployeePage;
+import com.example.springtestproject.model.EmployeePatch;
+import com.example.springtestproject.model.EmployeeView;
+import com.example.springtestproject.model.EmployeesVersion;
+import com.example.springtestproject.model.ImportReport;
+import com.example.springtestproject.service.EmployeeExportService;
+import com.example.springtestproject.service.EmployeeImportService;
 import com.example.springtestproject.service.EmployeeService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -8,27 +16,36 @@ import static org.hamcrest.CoreMatchers.is;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import org.mockito.Mock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MockMvcBuilder;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 
-import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 
-@WebMvcTest
+@WebMvcTest(EmployeeController.class)
 public class EmployeeControllerTest {
     @Autowired
     private MockMvc mockMvc;
@@ -36,6 +53,12 @@ public class EmployeeControllerTest {
     @MockBean
     private EmployeeService employeeService;
 
+    @MockBean
+    private EmployeeImportService employeeImportService;
+
+    @MockBean
+    private EmployeeExportService employeeExportService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -66,6 +89,45 @@ public class EmployeeControllerTest {
                         is(employee.getEmail())));
     }
 
+    @DisplayName("SaveEmployeesBulk")
+    @Test
+    public void givenListOfEmployees_whenCreateEmployees_ThenReturnSavedEmployees() throws Exception {
+        //given
+        Employee employee = Employee.builder()
+                .email("dubrovskay.7830@mail.ru")
+                .firstName("Philip")
+                .lastName("Dubrovskiy")
+                .build();
+        Employee employee2 = Employee.builder()
+                .email("test@mail.ru")
+                .firstName("John")
+                .lastName("Cena")
+                .build();
+        given(employeeService.saveAllEmployees(any()))
+                .willAnswer((invocation) -> invocation.getArgument(0));
+        //when
+        ResultActions response = mockMvc.perform(post("/api/employees/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(employee, employee2))));
+        //then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[1].email", is(employee2.getEmail())));
+    }
+
+    @DisplayName("SaveEmployeesBulkEmpty")
+    @Test
+    public void givenEmptyList_whenCreateEmployees_ThenReturnBadRequest() throws Exception {
+        //when
+        ResultActions response = mockMvc.perform(post("/api/employees/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"));
+        //then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isBadRequest());
+    }
+
     @DisplayName("GetAllEmployees")
     @Test
     public void givenListOfEmployees_whenGetAllEmployees_ThenReturnEmployeesList() throws Exception {
@@ -83,17 +145,112 @@ public class EmployeeControllerTest {
                 .lastName("Cena")
                 .build();
 
+       given(employeeService.getEmployeesVersion())
+                .willReturn(new EmployeesVersion(2, 2, 0));
        given(employeeService.getAllEmployee())
-                .willReturn(List.of(employee, employee2));
+                .willReturn(List.of(EmployeeView.from(employee), EmployeeView.from(employee2)));
         //when
         ResultActions response = mockMvc.perform(get("/api/employees"));
         //then
         response.andDo(MockMvcResultHandlers.print())
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"2-2-0\""))
                 .andExpect(jsonPath("$.size()",
                         is(List.of(employee, employee2).size())));
     }
 
+    @DisplayName("GetEmployeesPage")
+    @Test
+    public void givenLimitAndCursor_whenGetEmployeesPage_ThenReturnPageWithNextCursor() throws Exception {
+        //given
+        Employee employee = Employee.builder()
+                .id(6L)
+                .email("dubrovskay.7830@mail.ru")
+                .firstName("Philip")
+                .lastName("Dubrovskiy")
+                .build();
+        given(employeeService.getEmployeesPage(5L, 1))
+                .willReturn(new EmployeePage(List.of(EmployeeView.from(employee)), 6L));
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("limit", "1")
+                .param("after", "5"));
+        //then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.size()", is(1)))
+                .andExpect(jsonPath("$.content[0].email", is(employee.getEmail())))
+                .andExpect(jsonPath("$.nextCursor", is(6)));
+    }
+
+    @DisplayName("SearchEmployeesByName")
+    @Test
+    public void givenNamePrefixes_whenSearchEmployeesByName_ThenReturnMatches() throws Exception {
+        //given
+        given(employeeService.searchEmployeesByName("Dub", "Ph", 0, 20))
+                .willReturn(List.of(new EmployeeView(1L, "Philip", "Dubrovskiy", "dubrovskay.7830@mail.ru", 0L)));
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees/search")
+                .param("lastName", "Dub")
+                .param("firstName", "Ph"));
+        //then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$[0].lastName", is("Dubrovskiy")));
+    }
+
+    @DisplayName("SearchEmployees")
+    @Test
+    public void givenQuery_whenSearchEmployees_thenReturnIndexMatches() throws Exception {
+        //given
+        given(employeeService.searchEmployees("dubr ph", 5))
+                .willReturn(List.of(new EmployeeView(1L, "Philip", "Dubrovskiy", "dubrovskay.7830@mail.ru", 0L)));
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees/search")
+                .param("q", "dubr ph")
+                .param("limit", "5"));
+        //then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$[0].firstName", is("Philip")));
+        verify(employeeService, never()).searchEmployeesByName(any(), any(), anyInt(), anyInt());
+    }
+
+    @DisplayName("StreamAllEmployees")
+    @Test
+    public void givenListOfEmployees_whenStreamAllEmployees_ThenReturnJsonArray() throws Exception {
+        //given
+        Employee employee = Employee.builder()
+                .id(1L)
+                .email("dubrovskay.7830@mail.ru")
+                .firstName("Philip")
+                .lastName("Dubrovskiy")
+                .build();
+        Employee employee2 = Employee.builder()
+                .id(2L)
+                .email("test@mail.ru")
+                .firstName("John")
+                .lastName("Cena")
+                .build();
+        willAnswer(invocation -> {
+            Consumer<EmployeeView> action = invocation.getArgument(0);
+            action.accept(EmployeeView.from(employee));
+            action.accept(EmployeeView.from(employee2));
+            return null;
+        }).given(employeeService).streamAllEmployees(any());
+        //when
+        ResultActions started = mockMvc.perform(get("/api/employees/stream"))
+                .andExpect(request().asyncStarted());
+        ResultActions response = mockMvc.perform(asyncDispatch(started.andReturn()));
+        //then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[1].firstName", is(employee2.getFirstName())));
+    }
+
     @DisplayName("GetEmployeeByIdPositiveScenario")
     @Test
     public void givenEmployeeId_whenGetEmployeeById_thenEmployeeObject() throws Exception {
@@ -114,6 +271,25 @@ public class EmployeeControllerTest {
                 .andExpect(jsonPath("$.firstName", is(employee.getFirstName())));
     }
 
+    @DisplayName("GetEmployeeByEmail")
+    @Test
+    public void givenEmployeeEmail_whenGetEmployeeByEmail_thenEmployeeObject() throws Exception {
+        Employee employee = Employee.builder()
+                .id(1L)
+                .email("dubrovskay.7830@mail.ru")
+                .firstName("Philip")
+                .lastName("Dubrovskiy")
+                .build();
+        given(employeeService.getEmployeeByEmail(employee.getEmail())).willReturn(Optional.of(employee));
+
+        ResultActions response = mockMvc.perform(get("/api/employees").param("email", employee.getEmail()));
+
+        //then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(1)));
+    }
+
     @DisplayName("GetEmployeeByIdNegativeScenario")
     @Test
     public void givenNotExistEmployeeId_whenGetEmployeeByNotExistId_thenReturnNotFound() throws Exception {
@@ -180,17 +356,192 @@ public class EmployeeControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @DisplayName("PatchEmployee")
+    @Test
+    public void givenEmployeePatch_whenPatchEmployee_thenReturnPatchedEmployee() throws Exception {
+        long employeeId = 1L;
+        EmployeePatch patch = EmployeePatch.builder()
+                .firstName("John")
+                .version(0L)
+                .build();
+        Employee patchedEmployee = Employee.builder()
+                .id(employeeId)
+                .email("dubrovskay.7830@mail.ru")
+                .firstName("John")
+                .lastName("Dubrovskiy")
+                .version(1L)
+                .build();
+        given(employeeService.patchEmployee(employeeId, patch)).willReturn(Optional.of(patchedEmployee));
+        //when
+        ResultActions response = mockMvc.perform(patch("/api/employees/{id}", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(patch)));
+
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName", is("John")))
+                .andExpect(jsonPath("$.lastName", is("Dubrovskiy")))
+                .andExpect(jsonPath("$.version", is(1)));
+    }
+
+    @DisplayName("PatchEmployeeNegativeScenario")
+    @Test
+    public void givenNotExistEmployeeId_whenPatchEmployee_thenReturnNotFound() throws Exception {
+        long employeeId = 2L;
+        given(employeeService.patchEmployee(any(Long.class), any(EmployeePatch.class))).willReturn(Optional.empty());
+        //when
+        ResultActions response = mockMvc.perform(patch("/api/employees/{id}", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"firstName\":\"John\"}"));
+
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isNotFound());
+    }
+
+    @DisplayName("PatchEmployeeConflict")
+    @Test
+    public void givenStaleVersion_whenPatchEmployee_thenReturnConflict() throws Exception {
+        long employeeId = 1L;
+        given(employeeService.patchEmployee(any(Long.class), any(EmployeePatch.class)))
+                .willThrow(new ObjectOptimisticLockingFailureException(Employee.class, employeeId));
+        //when
+        ResultActions response = mockMvc.perform(patch("/api/employees/{id}", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"firstName\":\"John\",\"version\":0}"));
+
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isConflict());
+    }
+
     @DisplayName("DeleteEmployeeById")
     @Test
-    public void givenEmployeeId_whenDeleteEmployee_thenReturnOk() throws Exception {
+    public void givenEmployeeId_whenDeleteEmployee_thenReturnNoContent() throws Exception {
         long employeeId = 1L;
-        willDoNothing().given(employeeService).deleteEmployee(employeeId);
+        given(employeeService.deleteEmployee(employeeId)).willReturn(true);
+
+        //when
+        ResultActions response = mockMvc.perform(delete("/api/employees/{id}", employeeId));
+
+        //then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isNoContent());
+    }
+
+    @DisplayName("DeleteEmployeeByIdNegativeScenario")
+    @Test
+    public void givenNotExistEmployeeId_whenDeleteEmployee_thenReturnNotFound() throws Exception {
+        long employeeId = 2L;
+        given(employeeService.deleteEmployee(employeeId)).willReturn(false);
 
         //when
         ResultActions response = mockMvc.perform(delete("/api/employees/{id}", employeeId));
 
         //then
         response.andDo(MockMvcResultHandlers.print())
-                .andExpect(status().isOk());
+                .andExpect(status().isNotFound());
+    }
+
+    @DisplayName("DeleteEmployeesByIds")
+    @Test
+    public void givenEmployeeIds_whenDeleteEmployees_thenReturnDeletedCount() throws Exception {
+        given(employeeService.deleteEmployees(List.of(1L, 2L, 3L))).willReturn(2);
+
+        //when
+        ResultActions response = mockMvc.perform(delete("/api/employees").param("ids", "1,2,3"));
+
+        //then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted", is(2)));
+    }
+
+    @DisplayName("ImportEmployeesCsv")
+    @Test
+    public void givenCsvBody_whenImportEmployees_thenReturnImportReport() throws Exception {
+        //given
+        ImportReport report = new ImportReport();
+        report.setRead(2);
+        report.setImported(2);
+        given(employeeImportService.importEmployees(any(), any())).willReturn(report);
+
+        //when
+        ResultActions response = mockMvc.perform(post("/api/employees/import")
+                .contentType("text/csv")
+                .content("firstName,lastName,email\nPhilip,Dubrovskiy,dubrovskay.7830@mail.ru\nJohn,Cena,test@mail.ru\n"));
+
+        //then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.completed", is(true)));
+        verify(employeeImportService).importEmployees(any(), eq(EmployeeFileFormat.CSV));
+    }
+
+    @DisplayName("ExportEmployeesCsv")
+    @Test
+    public void givenCsvFormat_whenExportEmployees_thenStreamAttachment() throws Exception {
+        //given
+        willAnswer(invocation -> {
+            invocation.getArgument(0, OutputStream.class).write("id,firstName\n1,Philip\n".getBytes());
+            return 1L;
+        }).given(employeeExportService).exportEmployees(any(), eq(EmployeeFileFormat.CSV));
+        //when
+        ResultActions started = mockMvc.perform(get("/api/employees/export").param("format", "csv"))
+                .andExpect(request().asyncStarted());
+        ResultActions response = mockMvc.perform(asyncDispatch(started.andReturn()));
+        //then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"employees.csv\""))
+                .andExpect(content().string("id,firstName\n1,Philip\n"));
+    }
+
+    @DisplayName("ExportEmployeesUnknownFormat")
+    @Test
+    public void givenUnknownFormat_whenExportEmployees_thenReturnBadRequest() throws Exception {
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees/export").param("format", "xml"));
+
+        //then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @DisplayName("GetAllEmployeesNotModified")
+    @Test
+    public void givenCurrentETag_whenGetAllEmployees_thenReturnNotModifiedWithoutLoadingList() throws Exception {
+        //given
+        given(employeeService.getEmployeesVersion()).willReturn(new EmployeesVersion(2, 2, 0));
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees").header("If-None-Match", "W/\"2-2-0\""));
+        //then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(employeeService, never()).getAllEmployee();
+    }
+
+    @DisplayName("GetEmployeeByIdNotModified")
+    @Test
+    public void givenCurrentETag_whenGetEmployeeById_thenReturnNotModified() throws Exception {
+        //given
+        Employee employee = Employee.builder()
+                .id(1L)
+                .email("dubrovskay.7830@mail.ru")
+                .firstName("Philip")
+                .lastName("Dubrovskiy")
+                .version(3L)
+                .build();
+        given(employeeService.getEmployeeById(1L)).willReturn(Optional.of(employee));
+        //when
+        ResultActions stale = mockMvc.perform(get("/api/employees/{id}", 1L).header("If-None-Match", "\"1-2\""));
+        ResultActions current = mockMvc.perform(get("/api/employees/{id}", 1L).header("If-None-Match", "\"1-3\""));
+        //then
+        stale.andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-3\""));
+        current.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
     }
 }
@@ -0,0 +1,81 @@
+package com.example.springtestproject.datasource;
+
+import com.example.springtestproject.repository.EmployeeRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ConnectionPoolWarmupTest {
+
+    private HikariDataSource pool;
+
+    private EmployeeRepository employeeRepository;
+
+    @BeforeEach
+    public void setup(){
+        pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:pool-warmup;DB_CLOSE_DELAY=-1");
+        pool.setUsername("sa");
+        pool.setMinimumIdle(3);
+        pool.setMaximumPoolSize(5);
+        employeeRepository = mock(EmployeeRepository.class);
+    }
+
+    @AfterEach
+    public void tearDown(){
+        pool.close();
+    }
+
+    @DisplayName("MinimumIdleOpenedBeforeReady")
+    @Test
+    public void givenLazyPool_whenWarmup_thenMinimumIdleConnectionsOpenAndQueriesRun(){
+        //given
+        ConnectionPoolWarmup warmup = new ConnectionPoolWarmup(List.of(pool), employeeRepository, 2, Duration.ofSeconds(5));
+
+        //when
+        warmup.run(new DefaultApplicationArguments());
+
+        //then
+        assertThat(pool.getHikariPoolMXBean().getTotalConnections()).isGreaterThanOrEqualTo(3);
+        assertThat(pool.getHikariPoolMXBean().getActiveConnections()).isZero();
+        verify(employeeRepository, times(2)).findById(-1L);
+        verify(employeeRepository, times(2)).findByEmail("");
+    }
+
+    @DisplayName("UnreachablePoolDoesNotHoldBackReadiness")
+    @Test
+    public void givenPoolThatCannotConnect_whenWarmup_thenFinishesWithinWarmupTimeout(){
+        //given
+        HikariDataSource downReplica = new HikariDataSource();
+        downReplica.setPoolName("down-replica");
+        downReplica.setJdbcUrl("jdbc:h2:tcp://localhost:1/nothing");
+        downReplica.setUsername("sa");
+        downReplica.setInitializationFailTimeout(-1);
+        downReplica.setConnectionTimeout(30_000);
+        ConnectionPoolWarmup warmup = new ConnectionPoolWarmup(List.of(downReplica, pool), employeeRepository, 1, Duration.ofMillis(500));
+
+        try {
+            //when
+            long start = System.nanoTime();
+            warmup.run(new DefaultApplicationArguments());
+
+            //then
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+            assertThat(pool.getHikariPoolMXBean().getTotalConnections()).isGreaterThanOrEqualTo(3);
+            verify(employeeRepository).findById(-1L);
+        } finally {
+            downReplica.close();
+        }
+    }
+}
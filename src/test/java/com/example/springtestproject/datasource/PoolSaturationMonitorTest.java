@@ -0,0 +1,117 @@
+package com.example.springtestproject.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+public class PoolSaturationMonitorTest {
+
+    private HikariDataSource pool;
+
+    private ConnectionTracker tracker;
+
+    private PoolSaturationMonitor monitor;
+
+    private ExecutorService executor;
+
+    private CountDownLatch release;
+
+    @BeforeEach
+    public void setup(){
+        HikariDataSource hikari = new HikariDataSource();
+        hikari.setJdbcUrl("jdbc:h2:mem:pool-saturation;DB_CLOSE_DELAY=-1");
+        hikari.setUsername("sa");
+        hikari.setMaximumPoolSize(1);
+        hikari.setConnectionTimeout(5_000);
+        tracker = new ConnectionTracker();
+        pool = tracker.track(hikari);
+        release = new CountDownLatch(1);
+        monitor = new PoolSaturationMonitor(List.of(pool), tracker, Duration.ofMinutes(1));
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    public void tearDown(){
+        release.countDown();
+        executor.shutdownNow();
+        pool.close();
+    }
+
+    //like a transaction: one connection across two statements, held between them until released
+    private boolean holdAcrossStatements() throws Exception {
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("SELECT 1");
+            release.await(10, TimeUnit.SECONDS);
+            return statement.execute("SELECT 2");
+        }
+    }
+
+    private boolean waitForConnection() throws Exception {
+        try (Connection connection = pool.getConnection()) {
+            return connection.isValid(1);
+        }
+    }
+
+    @DisplayName("IdlePoolNotReported")
+    @Test
+    public void givenNoWaiters_whenCheck_thenNothingReported(){
+        assertThat(monitor.check()).isFalse();
+    }
+
+    @DisplayName("TrackedPoolStillHikari")
+    @Test
+    public void givenTrackedPool_whenUsed_thenHikariSettingsAndStatsAvailable() throws Exception {
+        //when
+        try (Connection connection = pool.getConnection()) {
+            //then
+            assertThat(connection.isValid(1)).isTrue();
+            assertThat(pool.getMaximumPoolSize()).isEqualTo(1);
+            assertThat(pool.getHikariPoolMXBean().getActiveConnections()).isEqualTo(1);
+        }
+    }
+
+    @DisplayName("SaturatedPoolReportsHolder")
+    @Test
+    public void givenThreadWaitingForConnection_whenCheck_thenOnlyHolderReported(){
+        //given
+        executor.submit(this::holdAcrossStatements);
+        await().atMost(Duration.ofSeconds(5)).until(() -> pool.getHikariPoolMXBean().getActiveConnections() == 1);
+        executor.submit(this::waitForConnection);
+        await().atMost(Duration.ofSeconds(5)).until(() -> pool.getHikariPoolMXBean().getThreadsAwaitingConnection() == 1);
+
+        //when
+        boolean reported = monitor.check();
+
+        //then
+        assertThat(reported).isTrue();
+        //the waiting thread holds nothing yet
+        assertThat(tracker.snapshot()).extracting(ConnectionTracker.HeldConnection::holder)
+                .containsExactly("PoolSaturationMonitorTest.holdAcrossStatements");
+        //one report per quiet period
+        assertThat(monitor.check()).isFalse();
+    }
+
+    @DisplayName("ClosedConnectionsForgotten")
+    @Test
+    public void givenClosedConnection_whenSnapshot_thenEmpty() throws Exception {
+        release.countDown();
+
+        holdAcrossStatements();
+
+        assertThat(tracker.snapshot()).isEmpty();
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.springtestproject.datasource;
+
+import com.example.springtestproject.datasource.ReplicaRoutingDataSource.Replica;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.springframework.transaction.support.TransactionSynchronizationManager.setActualTransactionActive;
+import static org.springframework.transaction.support.TransactionSynchronizationManager.setCurrentTransactionReadOnly;
+
+public class ReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+
+    private DataSource firstReplica;
+
+    private DataSource secondReplica;
+
+    private Connection primaryConnection;
+
+    private Connection firstConnection;
+
+    private Connection secondConnection;
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    public void setup() throws SQLException{
+        primary = mock(DataSource.class);
+        firstReplica = mock(DataSource.class);
+        secondReplica = mock(DataSource.class);
+        primaryConnection = mock(Connection.class);
+        firstConnection = mock(Connection.class);
+        secondConnection = mock(Connection.class);
+        given(primary.getConnection()).willReturn(primaryConnection);
+        given(firstReplica.getConnection()).willReturn(firstConnection);
+        given(secondReplica.getConnection()).willReturn(secondConnection);
+        routingDataSource = new ReplicaRoutingDataSource(primary,
+                List.of(new Replica("replica-0", firstReplica), new Replica("replica-1", secondReplica)),
+                Duration.ofSeconds(5), "SHOW REPLICA STATUS");
+    }
+
+    @AfterEach
+    public void tearDown(){
+        setCurrentTransactionReadOnly(false);
+        setActualTransactionActive(false);
+    }
+
+    @DisplayName("WritesGoToPrimary")
+    @Test
+    public void givenReadWriteTransaction_whenGetConnection_thenPrimary() throws SQLException{
+        setActualTransactionActive(true);
+
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @DisplayName("ReadOnlyRoundRobin")
+    @Test
+    public void givenReadOnlyTransaction_whenGetConnection_thenReplicasInTurn() throws SQLException{
+        readOnlyTransaction();
+
+        assertThat(List.of(routingDataSource.getConnection(), routingDataSource.getConnection()))
+                .containsExactly(firstConnection, secondConnection);
+    }
+
+    @DisplayName("ReadYourWritesPinsPrimary")
+    @Test
+    public void givenPrimaryRequired_whenReadOnlyTransaction_thenPrimary() throws SQLException{
+        readOnlyTransaction();
+
+        Boolean previous = ReadYourWrites.requirePrimary(true);
+        try {
+            assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+        } finally {
+            ReadYourWrites.restore(previous);
+        }
+    }
+
+    @DisplayName("CredentialsPassedToRoutedDataSource")
+    @Test
+    public void givenCredentials_whenGetConnection_thenRoutedTargetAskedWithThem() throws SQLException{
+        //given
+        readOnlyTransaction();
+        Connection replicaConnection = mock(Connection.class);
+        given(firstReplica.getConnection("reader", "secret")).willReturn(replicaConnection);
+        given(primary.getConnection("reader", "secret")).willReturn(primaryConnection);
+
+        //when
+        Connection connection = routingDataSource.getConnection("reader", "secret");
+        setCurrentTransactionReadOnly(false);
+
+        //then
+        assertThat(connection).isSameAs(replicaConnection);
+        assertThat(routingDataSource.getConnection("reader", "secret")).isSameAs(primaryConnection);
+    }
+
+    @DisplayName("RefusingReplicaSkipped")
+    @Test
+    public void givenReplicaRefusesConnection_whenGetConnection_thenNextReplicaAndMarkedDown() throws SQLException{
+        //given
+        readOnlyTransaction();
+        given(firstReplica.getConnection()).willThrow(new SQLException("Connection refused"));
+
+        //when
+        Connection connection = routingDataSource.getConnection();
+
+        //then
+        assertThat(connection).isSameAs(secondConnection);
+        assertThat(routingDataSource.getReplicas().get(0).isHealthy()).isFalse();
+    }
+
+    @DisplayName("NoHealthyReplicaFallsBackToPrimary")
+    @Test
+    public void givenAllReplicasDown_whenGetConnection_thenPrimary() throws SQLException{
+        //given
+        readOnlyTransaction();
+        given(firstReplica.getConnection()).willThrow(new SQLException("Connection refused"));
+        given(secondReplica.getConnection()).willThrow(new SQLException("Connection refused"));
+
+        //when //then
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @DisplayName("LagQueryRequiredWithReplicas")
+    @Test
+    public void givenReplicasWithoutLagQuery_whenCreated_thenRejected(){
+        //when //then
+        assertThatThrownBy(() -> new ReplicaRoutingDataSource(primary, List.of(new Replica("replica-0", firstReplica)),
+                Duration.ofSeconds(5), ""))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("employees.datasource.replica.lag-query");
+    }
+
+    private static void readOnlyTransaction(){
+        setActualTransactionActive(true);
+        setCurrentTransactionReadOnly(true);
+    }
+}
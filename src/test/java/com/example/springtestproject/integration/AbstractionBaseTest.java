@@ -1,20 +1,52 @@
 package com.example.springtestproject.integration;
 
+import com.example.springtestproject.service.EmployeeCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.MySQLContainer;
-import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.utility.DockerImageName;
 
+import java.util.Arrays;
+
+//one MySQL container per JVM for every test class, kept between runs when testcontainers.reuse.enable=true
+//is set in ~/.testcontainers.properties; keep the version in line with the jdbc:tc url in application.properties.
+//Under the h2 profile no container is started and application-h2.properties supplies the datasource
 public abstract class AbstractionBaseTest {
-    static final MySQLContainer MY_SQL_CONTAINER;
+    static final DockerImageName MY_SQL_IMAGE = DockerImageName.parse("mysql:8.0.36");
+
+    protected static final boolean EMBEDDED_DATABASE = Arrays.asList(System.getProperty("spring.profiles.active", "").split(","))
+            .contains("h2");
+
+    static final MySQLContainer<?> MY_SQL_CONTAINER;
+
+    //absent in the repository slice tests
+    @Autowired(required = false)
+    private EmployeeCache employeeCache;
 
     static {
-        MY_SQL_CONTAINER = new MySQLContainer("mysql:latest");
-        MY_SQL_CONTAINER.start();
+        if(EMBEDDED_DATABASE){
+            MY_SQL_CONTAINER = null;
+        } else {
+            MY_SQL_CONTAINER = new MySQLContainer<>(MY_SQL_IMAGE).withReuse(true);
+            MY_SQL_CONTAINER.start();
+        }
+    }
+
+    //the truncation around each test bypasses the service, so employees cached by an earlier test must go too
+    @BeforeEach
+    public void clearEmployeeCache(){
+        if(employeeCache != null){
+            employeeCache.invalidateAll();
+        }
     }
 
     @DynamicPropertySource
     public static void dynamicPropertySource(DynamicPropertyRegistry dynamicPropertyRegistry){
+        if(EMBEDDED_DATABASE){
+            return;
+        }
         dynamicPropertyRegistry.add("spring.datasource.url", MY_SQL_CONTAINER::getJdbcUrl);
         dynamicPropertyRegistry.add("spring.datasource.username", MY_SQL_CONTAINER::getUsername);
         dynamicPropertyRegistry.add("spring.datasource.password", MY_SQL_CONTAINER::getPassword);
@@ -1,38 +1,60 @@
 package com.example.springtestproject.integration;
 
+import com.example.springtestproject.exception.ResourceNotFoundException;
 import com.example.springtestproject.model.Employee;
+import com.example.springtestproject.model.EmployeePatch;
+import com.example.springtestproject.model.EmployeeView;
 import com.example.springtestproject.repository.EmployeeRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.junit.jupiter.api.BeforeEach;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
-import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import org.testcontainers.containers.MySQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.hamcrest.CoreMatchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willDoNothing;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
-@AutoConfigureMockMvc
+@IntegrationTest
 public class EmployeeControllerITest extends AbstractionBaseTest{
 
     @Autowired
@@ -44,18 +66,12 @@ public class EmployeeControllerITest extends AbstractionBaseTest{
     @Autowired
     private ObjectMapper objectMapper;
 
-    @BeforeEach
-    void setup(){
-        employeeRepository.deleteAll();
-    }
+    @LocalServerPort
+    private int port;
 
     @DisplayName("SaveEmployeeControllerTest")
     @Test
     public void givenEmployeeObject_whenCreateEmployee_ThenReturnSavedEmployee() throws Exception {
-        System.out.println(String.format("Container name $s, $s, $s",
-                MY_SQL_CONTAINER.getDatabaseName(),
-                MY_SQL_CONTAINER.getUsername(),
-                MY_SQL_CONTAINER.getPassword()));
         //given
         Employee employee = Employee.builder()
                 .id(1L)
@@ -78,6 +94,49 @@ public class EmployeeControllerITest extends AbstractionBaseTest{
                         is(employee.getEmail())));
     }
 
+    @DisplayName("ConcurrentSaveSameEmail")
+    @Test
+    public void givenConcurrentCreatesWithSameEmail_whenCreateEmployee_thenOnlyOneSaved() throws Exception {
+        //given
+        int requests = 16;
+        String content = objectMapper.writeValueAsString(Employee.builder()
+                .email("dubrovskay.7830@mail.ru")
+                .firstName("Philip")
+                .lastName("Dubrovskiy")
+                .build());
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        //when
+        for(int i = 0; i < requests; i++){
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    return mockMvc.perform(post("/api/employees")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(content))
+                            .andReturn().getResponse().getStatus() == 201;
+                } catch (Exception e) {
+                    if(!(e.getCause() instanceof ResourceNotFoundException)){
+                        throw e;
+                    }
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+        int created = 0;
+        for(Future<Boolean> result : results){
+            if(result.get()){
+                created++;
+            }
+        }
+        executor.shutdown();
+        //then
+        assertThat(created).isEqualTo(1);
+        assertThat(employeeRepository.findAll()).hasSize(1);
+    }
+
     @DisplayName("GetAllEmployees")
     @Test
     public void givenListOfEmployees_whenGetAllEmployees_ThenReturnEmployeesList() throws Exception {
@@ -185,6 +244,115 @@ public class EmployeeControllerITest extends AbstractionBaseTest{
                 .andExpect(status().isNotFound());
     }
 
+    @DisplayName("UpdateEmployeeDuplicateEmail")
+    @Test
+    public void givenEmailOfAnotherEmployee_whenUpdateEmployee_thenRejectedAsDuplicate() throws Exception {
+        employeeRepository.save(Employee.builder()
+                .email("taken@mail.ru")
+                .firstName("John")
+                .lastName("Cena")
+                .build());
+        Employee savedEmployee = employeeRepository.save(Employee.builder()
+                .email("dubrovskay.7830@mail.ru")
+                .firstName("Philip")
+                .lastName("Dubrovskiy")
+                .build());
+        Employee updatedEmployee = Employee.builder()
+                .email("taken@mail.ru")
+                .firstName("Philip")
+                .lastName("Dubrovskiy")
+                .build();
+
+        //when
+        Throwable thrown = catchThrowable(() -> mockMvc.perform(put("/api/employees/{id}", savedEmployee.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployee))));
+
+        //then
+        assertThat(thrown).hasCauseInstanceOf(ResourceNotFoundException.class);
+        assertThat(employeeRepository.findById(savedEmployee.getId())).get()
+                .extracting(Employee::getEmail).isEqualTo("dubrovskay.7830@mail.ru");
+    }
+
+    @DisplayName("PatchEmployeeDuplicateEmail")
+    @Test
+    public void givenEmailOfAnotherEmployee_whenPatchEmployee_thenRejectedAsDuplicate() throws Exception {
+        employeeRepository.save(Employee.builder()
+                .email("taken@mail.ru")
+                .firstName("John")
+                .lastName("Cena")
+                .build());
+        Employee savedEmployee = employeeRepository.save(Employee.builder()
+                .email("dubrovskay.7830@mail.ru")
+                .firstName("Philip")
+                .lastName("Dubrovskiy")
+                .build());
+        EmployeePatch patch = EmployeePatch.builder()
+                .email("taken@mail.ru")
+                .build();
+
+        //when
+        Throwable thrown = catchThrowable(() -> mockMvc.perform(patch("/api/employees/{id}", savedEmployee.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(patch))));
+
+        //then
+        assertThat(thrown).hasCauseInstanceOf(ResourceNotFoundException.class);
+        assertThat(employeeRepository.findById(savedEmployee.getId())).get()
+                .extracting(Employee::getEmail).isEqualTo("dubrovskay.7830@mail.ru");
+    }
+
+    @DisplayName("MetricsExposed")
+    @Test
+    public void givenRequest_whenGetMetrics_thenEveryLayerAndPoolMeasured() throws Exception {
+        Employee savedEmployee = employeeRepository.save(Employee.builder()
+                .email("dubrovskay.7830@mail.ru")
+                .firstName("Philip")
+                .lastName("Dubrovskiy")
+                .build());
+        mockMvc.perform(get("/api/employees/{id}", savedEmployee.getId()))
+                .andExpect(status().isOk());
+
+        for(String meter : List.of("http.server.requests", "employee.service",
+                "spring.data.repository.invocations", "hikaricp.connections.active",
+                "hikaricp.connections.pending")){
+            mockMvc.perform(get("/actuator/metrics/{meter}", meter))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.name", is(meter)));
+        }
+    }
+
+    @DisplayName("PatchEmployee")
+    @Test
+    public void givenEmployeePatch_whenPatchEmployee_thenChangeFieldAndRejectStaleVersion() throws Exception {
+        Employee savedEmployee = employeeRepository.save(Employee.builder()
+                .email("dubrovskay.7830@mail.ru")
+                .firstName("Philip")
+                .lastName("Dubrovskiy")
+                .build());
+        EmployeePatch patch = EmployeePatch.builder()
+                .firstName("John")
+                .version(savedEmployee.getVersion())
+                .build();
+
+        //when
+        ResultActions response = mockMvc.perform(patch("/api/employees/{id}", savedEmployee.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(patch)));
+        ResultActions staleResponse = mockMvc.perform(patch("/api/employees/{id}", savedEmployee.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(patch)));
+
+        //then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName", is("John")))
+                .andExpect(jsonPath("$.lastName", is("Dubrovskiy")))
+                .andExpect(jsonPath("$.version", is((int) savedEmployee.getVersion() + 1)));
+        staleResponse.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isConflict());
+    }
+
     @DisplayName("DeleteEmployeeById")
     @Test
     public void givenEmployeeId_whenDeleteEmployee_thenReturnOk() throws Exception {
@@ -201,7 +369,265 @@ public class EmployeeControllerITest extends AbstractionBaseTest{
 
         //then
         response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/employees/{id}", savedEmployee.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @DisplayName("SearchEmployeesAfterWrites")
+    @Test
+    public void givenCreatedAndPatchedEmployee_whenSearchEmployees_thenIndexFollowsWrites() throws Exception {
+        //given
+        Employee employee = Employee.builder()
+                .email("quimbyfrost@mail.ru")
+                .firstName("Quentin")
+                .lastName("Quimbyfrost")
+                .build();
+        MvcResult created = mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Employee savedEmployee = objectMapper.readValue(created.getResponse().getContentAsString(), Employee.class);
+        EmployeePatch patch = EmployeePatch.builder()
+                .firstName("Quirinus")
+                .version(savedEmployee.getVersion())
+                .build();
+        mockMvc.perform(patch("/api/employees/{id}", savedEmployee.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(patch)))
+                .andExpect(status().isOk());
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees/search").param("q", "quir quimbyf"));
+
+        //then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$[0].firstName", is("Quirinus")));
+        mockMvc.perform(get("/api/employees/search").param("q", "quentin"))
+                .andExpect(jsonPath("$.size()", is(0)));
+    }
+
+    @DisplayName("DeleteEmployeesByIds")
+    @Test
+    public void givenEmployeeIds_whenDeleteEmployees_thenDeleteExistingOnes() throws Exception {
+        List<Employee> savedEmployees = employeeRepository.saveAll(List.of(
+                Employee.builder()
+                        .email("dubrovskay.7830@mail.ru")
+                        .firstName("Philip")
+                        .lastName("Dubrovskiy")
+                        .build(),
+                Employee.builder()
+                        .email("test@mail.ru")
+                        .firstName("John")
+                        .lastName("Cena")
+                        .build()));
+
+        //when
+        ResultActions response = mockMvc.perform(delete("/api/employees")
+                .param("ids", String.valueOf(savedEmployees.get(0).getId()),
+                        String.valueOf(savedEmployees.get(1).getId()), "0"));
+
+        //then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted", is(2)));
+        assertThat(employeeRepository.count()).isZero();
+    }
+
+    @DisplayName("ImportEmployeesNdjson")
+    @Test
+    public void givenNdjsonBody_whenImportEmployees_thenCommitValidRowsAndReportErrors() throws Exception {
+        //given
+        employeeRepository.save(Employee.builder()
+                .email("test@mail.ru")
+                .firstName("John")
+                .lastName("Cena")
+                .build());
+        String body = """
+                {"firstName":"Philip","lastName":"Dubrovskiy","email":"dubrovskay.7830@mail.ru"}
+                {"firstName":"John","lastName":"Cena","email":"test@mail.ru"}
+                {"firstName":"Anna","lastName":"Petrova"}
+                not json
+                {"firstName":"Anna","lastName":"Petrova","email":"petrova@mail.ru"}
+                """;
+
+        //when
+        ResultActions response = mockMvc.perform(post("/api/employees/import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body));
+
+        //then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.read", is(5)))
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.rejected", is(3)))
+                .andExpect(jsonPath("$.errors[0].row", is(3)))
+                .andExpect(jsonPath("$.errors[1].row", is(4)))
+                .andExpect(jsonPath("$.errors[2].row", is(2)));
+        assertThat(employeeRepository.count()).isEqualTo(3);
+    }
+
+    @DisplayName("ExportEmployeesNdjsonGzip")
+    @Test
+    public void givenEmployees_whenExportEmployeesGzipped_thenStreamOneJsonObjectPerLine() throws Exception {
+        //given
+        employeeRepository.saveAll(List.of(
+                Employee.builder()
+                        .email("dubrovskay.7830@mail.ru")
+                        .firstName("Philip")
+                        .lastName("Dubrovskiy")
+                        .build(),
+                Employee.builder()
+                        .email("test@mail.ru")
+                        .firstName("John")
+                        .lastName("Cena")
+                        .build()));
+
+        //when
+        MvcResult started = mockMvc.perform(get("/api/employees/export")
+                        .header("Accept-Encoding", "gzip"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult response = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn();
+
+        //then
+        List<String> lines;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(
+                new ByteArrayInputStream(response.getResponse().getContentAsByteArray())), StandardCharsets.UTF_8))) {
+            lines = reader.lines().toList();
+        }
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines.get(1), Employee.class).getEmail()).isEqualTo("test@mail.ru");
+    }
+
+    @DisplayName("ExportEmployeesCsv")
+    @Test
+    public void givenEmployees_whenExportEmployeesCsv_thenStreamHeaderAndRows() throws Exception {
+        //given
+        Employee savedEmployee = employeeRepository.save(Employee.builder()
+                .email("dubrovskay.7830@mail.ru")
+                .firstName("Philip")
+                .lastName("Dubrovskiy")
+                .build());
+
+        //when
+        MvcResult started = mockMvc.perform(get("/api/employees/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(started));
+
+        //then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(content().string("id,firstName,lastName,email,version\n"
+                        + savedEmployee.getId() + ",Philip,Dubrovskiy,dubrovskay.7830@mail.ru,0\n"));
+    }
+
+    @DisplayName("GetAllEmployeesConditional")
+    @Test
+    public void givenUnchangedTable_whenGetAllEmployeesWithETag_thenReturnNotModifiedUntilChange() throws Exception {
+        //given
+        Employee savedEmployee = employeeRepository.save(Employee.builder()
+                .email("dubrovskay.7830@mail.ru")
+                .firstName("Philip")
+                .lastName("Dubrovskiy")
+                .build());
+        String eTag = mockMvc.perform(get("/api/employees"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        //when
+        ResultActions unchanged = mockMvc.perform(get("/api/employees").header("If-None-Match", eTag));
+        mockMvc.perform(patch("/api/employees/{id}", savedEmployee.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(EmployeePatch.builder().firstName("Phil").build())))
                 .andExpect(status().isOk());
+        ResultActions changed = mockMvc.perform(get("/api/employees").header("If-None-Match", eTag));
+
+        //then
+        unchanged.andExpect(status().isNotModified());
+        changed.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].firstName", is("Phil")));
+    }
+
+    @DisplayName("GetAllEmployeesCompressed")
+    @Test
+    public void givenLargeList_whenGetAllEmployeesAcceptingGzip_thenResponseIsCompressed() throws Exception {
+        //given
+        List<Employee> employees = new ArrayList<>();
+        for(int i = 0; i < 100; i++){
+            employees.add(Employee.builder()
+                    .email("employee" + i + "@mail.ru")
+                    .firstName("First" + i)
+                    .lastName("Last" + i)
+                    .build());
+        }
+        employeeRepository.saveAll(employees);
+
+        //when
+        HttpResponse<byte[]> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/api/employees"))
+                        .header("Accept-Encoding", "gzip")
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        //then
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Encoding")).contains("gzip");
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            assertThat(objectMapper.readValue(body, new TypeReference<List<EmployeeView>>(){})).hasSize(100);
+        }
+    }
+
+    @DisplayName("GetEmployeeSmile")
+    @Test
+    public void givenSmileAccept_whenGetEmployeeById_thenReturnBinaryRepresentation() throws Exception {
+        //given
+        Employee savedEmployee = employeeRepository.save(Employee.builder()
+                .email("dubrovskay.7830@mail.ru")
+                .firstName("Philip")
+                .lastName("Dubrovskiy")
+                .build());
+
+        //when
+        MvcResult response = mockMvc.perform(get("/api/employees/{id}", savedEmployee.getId())
+                        .accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-jackson-smile"))
+                .andReturn();
+
+        //then
+        Employee employee = new SmileMapper().readValue(response.getResponse().getContentAsByteArray(), Employee.class);
+        assertThat(employee.getEmail()).isEqualTo(savedEmployee.getEmail());
     }
 
+    @DisplayName("GetEmployeeByIdAsync")
+    @Test
+    public void givenSavedEmployee_whenGetEmployeeByIdAsync_thenReturnEmployee() throws Exception {
+        //given
+        Employee savedEmployee = employeeRepository.save(Employee.builder()
+                .email("dubrovskay.7830@mail.ru")
+                .firstName("Philip")
+                .lastName("Dubrovskiy")
+                .build());
+
+        //when
+        MvcResult started = mockMvc.perform(get("/api/employees/async/{id}", savedEmployee.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(started));
+
+        //then
+        response.andDo(MockMvcResultHandlers.print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email", is(savedEmployee.getEmail())));
+    }
 }
@@ -0,0 +1,26 @@
+package com.example.springtestproject.integration;
+
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+//the single full-context configuration, every class using it shares one cached application context;
+//tables are truncated around each test instead of relying on repository deleteAll(); the opt-in pool
+//diagnostics are on so the suite covers the proxied pools
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "employees.datasource.diagnostics.enabled=true")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@Sql(statements = IntegrationTest.TRUNCATE_EMPLOYEES, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(statements = IntegrationTest.TRUNCATE_EMPLOYEES, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public @interface IntegrationTest {
+    String TRUNCATE_EMPLOYEES = "TRUNCATE TABLE employees";
+}
@@ -0,0 +1,174 @@
+package com.example.springtestproject.integration;
+
+import com.example.springtestproject.datasource.ReadYourWritesFilter;
+import com.example.springtestproject.datasource.ReplicaRoutingDataSource;
+import com.example.springtestproject.model.Employee;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//two embedded databases stand in for primary and replica; nothing replicates between them, so where a row
+//shows up tells which one served the read
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicaRoutingITest.PRIMARY_URL,
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "employees.datasource.replica.urls=" + ReplicaRoutingITest.REPLICA_URL,
+        "employees.datasource.replica.lag-query=select seconds from replica_lag",
+        "employees.datasource.replica.max-lag=5s",
+        //checks are triggered by the tests
+        "employees.datasource.replica.check-interval=1h",
+        "employees.datasource.read-your-writes-window=1m"})
+@AutoConfigureMockMvc
+@Sql(statements = IntegrationTest.TRUNCATE_EMPLOYEES, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+public class ReplicaRoutingITest {
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static final JdbcTemplate REPLICA = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @BeforeAll
+    public static void createReplicaSchema(){
+        REPLICA.execute("create table if not exists employees (id bigint primary key, first_name varchar(255) not null, " +
+                "last_name varchar(255) not null, email varchar(255) not null, version bigint not null)");
+        REPLICA.execute("create table if not exists replica_lag (seconds bigint)");
+    }
+
+    @BeforeEach
+    public void resetReplica(){
+        REPLICA.execute("truncate table employees");
+        REPLICA.execute("truncate table replica_lag");
+        REPLICA.update("insert into replica_lag values (0)");
+        replicaRoutingDataSource.checkReplicas();
+    }
+
+    @DisplayName("ReadOnlyReadsServedByReplica")
+    @Test
+    public void givenRowOnlyOnReplica_whenGetAll_thenServedByReplica() throws Exception{
+        //given
+        REPLICA.update("insert into employees values (1000, 'Ramesh', 'Replica', 'replica@mail.ru', 0)");
+
+        //when //then
+        mockMvc.perform(get("/api/employees"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$[0].email", is("replica@mail.ru")));
+    }
+
+    @DisplayName("CachedLookupsLoadFromPrimary")
+    @Test
+    public void givenDeletedRowStillOnReplica_whenGetById_thenNotFoundAndNotCached() throws Exception{
+        //given
+        MvcResult created = mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                Employee.builder().firstName("John").lastName("Cena").email("cena@mail.ru").build())))
+                .andExpect(status().isCreated())
+                .andReturn();
+        long id = objectMapper.readValue(created.getResponse().getContentAsString(), Employee.class).getId();
+        //the replica has not applied the delete yet
+        REPLICA.update("insert into employees values (?, 'John', 'Cena', 'cena@mail.ru', 0)", id);
+
+        //when
+        mockMvc.perform(delete("/api/employees/{id}", id))
+                .andExpect(status().isNoContent());
+
+        //then
+        mockMvc.perform(get("/api/employees/{id}", id))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/employees").param("email", "cena@mail.ru"))
+                .andExpect(status().isNotFound());
+    }
+
+    @DisplayName("WriterReadsOwnWritesFromPrimary")
+    @Test
+    public void givenWrite_whenReadWithCookie_thenServedByPrimary() throws Exception{
+        //given
+        Employee employee = Employee.builder().firstName("John").lastName("Cena").email("cena@mail.ru").build();
+
+        //when
+        MvcResult created = mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Cookie cookie = created.getResponse().getCookie(ReadYourWritesFilter.COOKIE_NAME);
+
+        //then
+        assertThat(cookie).isNotNull();
+        mockMvc.perform(get("/api/employees").cookie(cookie))
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$[0].email", is("cena@mail.ru")));
+        //other clients keep reading from the replica, which never received the row
+        mockMvc.perform(get("/api/employees"))
+                .andExpect(jsonPath("$.size()", is(0)));
+    }
+
+    @DisplayName("LaggingReplicaFallsBackToPrimary")
+    @Test
+    public void givenLaggingReplica_whenGetAll_thenServedByPrimary() throws Exception{
+        //given
+        mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                Employee.builder().firstName("John").lastName("Cena").email("cena@mail.ru").build())))
+                .andExpect(status().isCreated());
+        REPLICA.update("update replica_lag set seconds = 60");
+
+        //when
+        replicaRoutingDataSource.checkReplicas();
+
+        //then
+        assertThat(replicaRoutingDataSource.getReplicas().get(0).isHealthy()).isFalse();
+        mockMvc.perform(get("/api/employees"))
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$[0].email", is("cena@mail.ru")));
+    }
+
+    @DisplayName("StoppedReplicationFallsBackToPrimary")
+    @Test
+    public void givenReplicationStopped_whenChecked_thenReplicaOutOfRotationUntilRecovered(){
+        //given
+        REPLICA.update("update replica_lag set seconds = null");
+
+        //when
+        replicaRoutingDataSource.checkReplicas();
+        boolean healthyWhileStopped = replicaRoutingDataSource.getReplicas().get(0).isHealthy();
+        REPLICA.update("update replica_lag set seconds = 1");
+        replicaRoutingDataSource.checkReplicas();
+
+        //then
+        assertThat(healthyWhileStopped).isFalse();
+        assertThat(replicaRoutingDataSource.getReplicas().get(0).isHealthy()).isTrue();
+    }
+}
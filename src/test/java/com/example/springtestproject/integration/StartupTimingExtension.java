@@ -0,0 +1,64 @@
+package com.example.springtestproject.integration;
+
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Registered for every test class through junit-platform.properties. Reports how long each class took
+ * before its first test could run (container start, Spring context load or cache hit) next to its total
+ * time, in target/test-startup-report.csv.
+ */
+public class StartupTimingExtension implements BeforeAllCallback, BeforeEachCallback, AfterAllCallback {
+    private static final Path REPORT = Path.of(System.getProperty("test.startup.report", "target/test-startup-report.csv"));
+
+    private static boolean reportStarted;
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        store(context).put("start", System.nanoTime());
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        ExtensionContext.Store store = store(context.getParent().orElseThrow());
+        if(store.get("startup") == null){
+            store.put("startup", System.nanoTime() - store.get("start", Long.class));
+        }
+        store.put("tests", store.getOrDefault("tests", Integer.class, 0) + 1);
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) {
+        ExtensionContext.Store store = store(context);
+        long total = System.nanoTime() - store.get("start", Long.class);
+        long startup = store.getOrDefault("startup", Long.class, total);
+        write(String.format("%s,%d,%d,%d", context.getRequiredTestClass().getName(),
+                startup / 1_000_000, store.getOrDefault("tests", Integer.class, 0), total / 1_000_000));
+    }
+
+    private static ExtensionContext.Store store(ExtensionContext context) {
+        return context.getStore(ExtensionContext.Namespace.create(StartupTimingExtension.class, context.getRequiredTestClass()));
+    }
+
+    private static synchronized void write(String line) {
+        try {
+            Files.createDirectories(REPORT.toAbsolutePath().getParent());
+            if(!reportStarted){
+                Files.write(REPORT, List.of("class,startupMillis,tests,totalMillis"));
+                reportStarted = true;
+            }
+            Files.write(REPORT, List.of(line), StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
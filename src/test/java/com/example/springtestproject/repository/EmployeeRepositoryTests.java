@@ -1,20 +1,29 @@
 package com.example.springtestproject.repository;
 
+import com.example.springtestproject.integration.AbstractionBaseTest;
 import com.example.springtestproject.model.Employee;
+import com.example.springtestproject.model.EmployeeSummary;
+import com.example.springtestproject.model.EmployeeView;
+import com.example.springtestproject.model.EmployeesVersion;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+//runs against the shared container instead of replacing the datasource with its own database
 @DataJpaTest
-public class EmployeeRepositoryTests {
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class EmployeeRepositoryTests extends AbstractionBaseTest {
 
     @Autowired
     private EmployeeRepository employeeRepository;
@@ -102,53 +111,117 @@ public class EmployeeRepositoryTests {
         assertThat(employeeOptional).isEmpty();
     }
 
-    @DisplayName("Test for custom query using jpql")
+    @DisplayName("Test for delete employee by id without select")
     @Test
-    public void givenFirstNameAndLastName_whenFindByJQPL_thenEmployeeObject(){
+    public void givenEmployeeObject_whenDeleteEmployeeById_thenReturnAffectedRows(){
         employeeRepository.save(employee);
-        String firstName = "John";
-        String lastName = "Cena";
 
-        Employee savedEmployee = employeeRepository.findByJPQL(firstName, lastName);
-
-        assertThat(savedEmployee).isNotNull();
+        //when - action or behaviour that we are going to test
+        int deleted = employeeRepository.deleteEmployeeById(employee.getId());
+        int deletedAgain = employeeRepository.deleteEmployeeById(employee.getId());
+        //then
+        assertThat(deleted).isEqualTo(1);
+        assertThat(deletedAgain).isZero();
     }
 
-    @DisplayName("Test for custom query using jpql named params")
+    @DisplayName("Test for name search with duplicate names")
     @Test
-    public void givenFirstNameAndLastName_whenFindByJQPLNamedParams_thenEmployeeObject(){
-        employeeRepository.save(employee);
-        String firstName = "John";
-        String lastName = "Cena";
+    public void givenEmployeesWithSameName_whenSearchByName_thenReturnAll(){
+        Employee employeeNamesake = Employee.builder()
+                .firstName("John")
+                .lastName("Cena")
+                .email("john.cena.2@mail.ru")
+                .build();
+        employeeRepository.saveAll(List.of(employee, employeeNamesake));
 
-        Employee savedEmployee = employeeRepository.findByJPQLNamedParams(firstName, lastName);
+        List<EmployeeSummary> employees = employeeRepository.searchByName("Cena", "John", PageRequest.of(0, 10));
 
-        assertThat(savedEmployee).isNotNull();
+        assertThat(employees).extracting(EmployeeSummary::getEmail)
+                .containsExactly(employee.getEmail(), "john.cena.2@mail.ru");
     }
 
-    @DisplayName("Test for custom query using native sql")
+    @DisplayName("Test for name prefix search")
     @Test
-    public void givenFirstNameAndLastName_whenFindBySQL_thenEmployeeObject(){
-        employeeRepository.save(employee);
-        String firstName = "John";
-        String lastName = "Cena";
+    public void givenEmployeesWithSameLastNamePrefix_whenSearchByName_thenReturnOrderedPage(){
+        Employee employeeSecond = Employee.builder()
+                .firstName("Alex")
+                .lastName("Cena")
+                .email("alex.cena@mail.ru")
+                .build();
+        Employee employeeThird = Employee.builder()
+                .firstName("Philip")
+                .lastName("Dubrovskiy")
+                .email("dubrovskay.7830@mail.ru")
+                .build();
+        employeeRepository.saveAll(List.of(employee, employeeSecond, employeeThird));
 
-        Employee savedEmployee = employeeRepository.findByNativeSQL(firstName, lastName);
+        List<EmployeeSummary> firstPage = employeeRepository.searchByName("Ce", "", PageRequest.of(0, 1));
+        List<EmployeeSummary> secondPage = employeeRepository.searchByName("Ce", "", PageRequest.of(1, 1));
+        List<EmployeeSummary> byFirstName = employeeRepository.searchByName("Cena", "Jo", PageRequest.of(0, 10));
 
-        assertThat(savedEmployee).isNotNull();
+        assertThat(firstPage).extracting(EmployeeSummary::getFirstName).containsExactly("Alex");
+        assertThat(secondPage).extracting(EmployeeSummary::getFirstName).containsExactly("John");
+        assertThat(byFirstName).extracting(EmployeeSummary::getEmail).containsExactly("cena@mail.ru");
     }
 
-    @DisplayName("Test for custom query using native sql named")
+    @DisplayName("Test for name prefix search with LIKE wildcards in the name")
     @Test
-    public void givenFirstNameAndLastName_whenFindBySQLNamed_thenEmployeeObject(){
-        employeeRepository.save(employee);
-        String firstName = "John";
-        String lastName = "Cena";
+    public void givenNamesWithWildcards_whenSearchByEscapedName_thenMatchLiterally(){
+        Employee employeeUnderscore = Employee.builder()
+                .firstName("John")
+                .lastName("C_na")
+                .email("c_na@mail.ru")
+                .build();
+        Employee employeePercent = Employee.builder()
+                .firstName("100%")
+                .lastName("Cena")
+                .email("percent@mail.ru")
+                .build();
+        Employee employeeEscapeCharacter = Employee.builder()
+                .firstName("John")
+                .lastName("Ce!na")
+                .email("ce!na@mail.ru")
+                .build();
+        employeeRepository.saveAll(List.of(employee, employeeUnderscore, employeePercent, employeeEscapeCharacter));
 
-        Employee savedEmployee = employeeRepository.findByNativeSQLNamed(firstName, lastName);
+        List<EmployeeSummary> byLastName = employeeRepository.searchByName(EmployeeRepository.escapeLike("C_"), "", PageRequest.of(0, 10));
+        List<EmployeeSummary> byFirstName = employeeRepository.searchByName("Cena", EmployeeRepository.escapeLike("100%"), PageRequest.of(0, 10));
+        List<EmployeeSummary> byEscapeCharacter = employeeRepository.searchByName(EmployeeRepository.escapeLike("Ce!"), "", PageRequest.of(0, 10));
 
-        assertThat(savedEmployee).isNotNull();
+        assertThat(byLastName).extracting(EmployeeSummary::getEmail).containsExactly("c_na@mail.ru");
+        assertThat(byFirstName).extracting(EmployeeSummary::getEmail).containsExactly("percent@mail.ru");
+        assertThat(byEscapeCharacter).extracting(EmployeeSummary::getEmail).containsExactly("ce!na@mail.ru");
     }
 
+    @DisplayName("Test for projection reads")
+    @Test
+    public void givenEmployees_whenFindViews_thenReturnProjectionsInIdOrder(){
+        Employee employeeSecond = Employee.builder()
+                .firstName("Philip")
+                .lastName("Dubrovskiy")
+                .email("dubrovskay.7830@mail.ru")
+                .build();
+        List<Employee> savedEmployees = employeeRepository.saveAll(List.of(employee, employeeSecond));
+
+        List<EmployeeView> all = employeeRepository.findAllViews();
+        List<EmployeeView> page = employeeRepository.findByIdGreaterThanOrderByIdAsc(
+                savedEmployees.get(0).getId(), Limit.of(10), EmployeeView.class);
 
+        assertThat(all).extracting(EmployeeView::email).containsExactly("cena@mail.ru", "dubrovskay.7830@mail.ru");
+        assertThat(page).containsExactly(EmployeeView.from(savedEmployees.get(1)));
+    }
+
+    @DisplayName("Test for aggregate table version")
+    @Test
+    public void givenTableChanges_whenFindEmployeesVersion_thenVersionChanges(){
+        EmployeesVersion empty = employeeRepository.findEmployeesVersion();
+        Employee savedEmployee = employeeRepository.saveAndFlush(employee);
+        EmployeesVersion inserted = employeeRepository.findEmployeesVersion();
+        employeeRepository.deleteEmployeeById(savedEmployee.getId());
+        EmployeesVersion deleted = employeeRepository.findEmployeesVersion();
+
+        assertThat(empty).isEqualTo(new EmployeesVersion(0, 0, 0));
+        assertThat(inserted).isEqualTo(new EmployeesVersion(1, savedEmployee.getId(), 0));
+        assertThat(deleted.eTag()).isNotEqualTo(inserted.eTag());
+    }
 }
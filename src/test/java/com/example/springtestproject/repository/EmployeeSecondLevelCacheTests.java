@@ -0,0 +1,145 @@
+package com.example.springtestproject.repository;
+
+import com.example.springtestproject.config.SecondLevelCacheConfig;
+import com.example.springtestproject.integration.AbstractionBaseTest;
+import com.example.springtestproject.model.Employee;
+import com.example.springtestproject.model.EmployeeSummary;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//every repository call runs in its own transaction, the second-level cache is only filled and read across them
+@DataJpaTest(properties = "spring.profiles.include=l2cache")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(SecondLevelCacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class EmployeeSecondLevelCacheTests extends AbstractionBaseTest {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup(){
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        employee = employeeRepository.save(Employee.builder()
+                .firstName("John")
+                .lastName("Cena")
+                .email("cena@mail.ru")
+                .build());
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void tearDown(){
+        employeeRepository.deleteAllInBatch();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @DisplayName("FindByIdServedFromSecondLevelCache")
+    @Test
+    public void givenSavedEmployee_whenFindByIdTwice_thenNoStatementExecuted(){
+        //when
+        employeeRepository.findById(employee.getId());
+        Employee cached = employeeRepository.findById(employee.getId()).get();
+
+        //then
+        assertThat(cached.getEmail()).isEqualTo("cena@mail.ru");
+        assertThat(statistics.getDomainDataRegionStatistics(Employee.CACHE_REGION).getHitCount()).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @DisplayName("UpdateRefreshesCachedEntity")
+    @Test
+    public void givenCachedEmployee_whenUpdated_thenFindByIdReturnsNewState(){
+        //given
+        Employee loaded = employeeRepository.findById(employee.getId()).get();
+        loaded.setFirstName("Philip");
+
+        //when
+        employeeRepository.save(loaded);
+
+        //then
+        Employee reloaded = employeeRepository.findById(employee.getId()).get();
+        assertThat(reloaded.getFirstName()).isEqualTo("Philip");
+        assertThat(reloaded.getVersion()).isEqualTo(employee.getVersion() + 1);
+    }
+
+    @DisplayName("BulkDeleteEvictsCachedEntity")
+    @Test
+    public void givenCachedEmployee_whenDeletedByQuery_thenFindByIdEmpty(){
+        //given
+        employeeRepository.findById(employee.getId());
+
+        //when
+        employeeRepository.deleteEmployeeById(employee.getId());
+
+        //then
+        assertThat(employeeRepository.findById(employee.getId())).isEmpty();
+    }
+
+    @DisplayName("FindByEmailServedFromQueryCache")
+    @Test
+    public void givenEmail_whenFindByEmailTwice_thenSecondIsQueryCacheHit(){
+        //when
+        employeeRepository.findByEmail("cena@mail.ru");
+        employeeRepository.findByEmail("cena@mail.ru");
+
+        //then
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @DisplayName("WriteInvalidatesCachedQuery")
+    @Test
+    public void givenCachedEmailQuery_whenEmailChanged_thenOldEmailNotFound(){
+        //given
+        assertThat(employeeRepository.findByEmail("cena@mail.ru")).isPresent();
+        Employee loaded = employeeRepository.findById(employee.getId()).get();
+        loaded.setEmail("philip@mail.ru");
+
+        //when
+        employeeRepository.save(loaded);
+
+        //then
+        assertThat(employeeRepository.findByEmail("cena@mail.ru")).isEmpty();
+        assertThat(employeeRepository.findByEmail("philip@mail.ru")).isPresent();
+    }
+
+    @DisplayName("SearchByNameProjectionCached")
+    @Test
+    public void givenNamePrefix_whenSearchTwice_thenSecondIsQueryCacheHitAndInsertInvalidates(){
+        //given
+        List<EmployeeSummary> first = employeeRepository.searchByName("Ce", "", PageRequest.of(0, 20));
+        List<EmployeeSummary> second = employeeRepository.searchByName("Ce", "", PageRequest.of(0, 20));
+
+        //when
+        employeeRepository.save(Employee.builder().firstName("Anna").lastName("Cerny").email("cerny@mail.ru").build());
+
+        //then
+        assertThat(second).extracting(EmployeeSummary::getEmail).isEqualTo(first.stream().map(EmployeeSummary::getEmail).toList());
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        assertThat(employeeRepository.searchByName("Ce", "", PageRequest.of(0, 20))).hasSize(2);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.springtestproject.repository;
+
+import com.example.springtestproject.integration.AbstractionBaseTest;
+import com.example.springtestproject.model.Employee;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//boots the prod profile: the Flyway migrations build the schema and Hibernate only validates it against the
+//entities, so a mapping change without a migration fails here instead of at deployment
+@DataJpaTest(properties = "spring.profiles.include=prod")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class SchemaMigrationTests extends AbstractionBaseTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    //a database of its own, the shared one already has the tables ddl-auto=update created
+    @DynamicPropertySource
+    public static void migrationDatabase(DynamicPropertyRegistry dynamicPropertyRegistry){
+        if(EMBEDDED_DATABASE){
+            dynamicPropertyRegistry.add("spring.datasource.url",
+                    () -> "jdbc:h2:mem:migrations;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        }
+    }
+
+    @DisplayName("MigrationsAppliedAndSchemaValid")
+    @Test
+    public void givenProdProfile_whenStarted_thenMigratedToLatestVersion(){
+        assertThat(flyway.info().current()).isNotNull();
+        assertThat(flyway.info().pending()).isEmpty();
+        assertThat(flyway.info().current().getVersion().getVersion()).isEqualTo("1");
+    }
+
+    @DisplayName("MigratedSchemaAcceptsBatchedInserts")
+    @Test
+    public void givenMigratedSchema_whenSaveAll_thenIdsFromSequence(){
+        //when
+        List<Employee> saved = employeeRepository.saveAllAndFlush(List.of(
+                Employee.builder().firstName("John").lastName("Cena").email("cena@mail.ru").build(),
+                Employee.builder().firstName("Philip").lastName("Dubrovskiy").email("dubrovskay.7830@mail.ru").build()));
+
+        //then
+        assertThat(saved).extracting(Employee::getId).doesNotContain(0L).doesNotHaveDuplicates();
+        assertThat(employeeRepository.findByEmail("cena@mail.ru")).isPresent();
+    }
+}
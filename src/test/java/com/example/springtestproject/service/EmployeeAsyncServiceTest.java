@@ -0,0 +1,116 @@
+package com.example.springtestproject.service;
+
+import com.example.springtestproject.model.Employee;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeAsyncServiceTest {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    @Spy
+    private EmployeeCache employeeCache = new EmployeeCache(100, Duration.ofMinutes(1));
+
+    @Spy
+    private ThreadPoolTaskExecutor employeeExecutor = new ThreadPoolTaskExecutor();
+
+    @InjectMocks
+    private EmployeeAsyncService employeeAsyncService;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup(){
+        employeeExecutor.setCorePoolSize(1);
+        employeeExecutor.setMaxPoolSize(1);
+        employeeExecutor.setQueueCapacity(1);
+        employeeExecutor.initialize();
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("John")
+                .lastName("Cena")
+                .email("dubrovskay.7830@mail.ru")
+                .build();
+    }
+
+    @AfterEach
+    public void tearDown(){
+        employeeExecutor.shutdown();
+    }
+
+    @DisplayName("getEmployeeByIdRunsOnExecutor")
+    @Test
+    public void givenUncachedEmployee_whenGetEmployeeById_thenLoadOnExecutor() throws Exception {
+        //given
+        given(employeeService.getEmployeeById(1L)).willAnswer(invocation -> {
+            assertThat(Thread.currentThread().getName()).startsWith(employeeExecutor.getThreadNamePrefix());
+            return Optional.of(employee);
+        });
+
+        //when
+        Optional<Employee> loaded = employeeAsyncService.getEmployeeById(1L).get(5, TimeUnit.SECONDS);
+
+        //then
+        assertThat(loaded).contains(employee);
+    }
+
+    @DisplayName("getEmployeeByIdCacheHit")
+    @Test
+    public void givenCachedEmployee_whenGetEmployeeById_thenCompleteWithoutExecutor(){
+        //given
+        employeeCache.put(employee);
+
+        //when
+        CompletableFuture<Optional<Employee>> future = employeeAsyncService.getEmployeeById(1L);
+
+        //then
+        assertThat(future).isCompletedWithValue(Optional.of(employee));
+        verifyNoInteractions(employeeService);
+    }
+
+    @DisplayName("saturatedExecutorRejects")
+    @Test
+    public void givenBusyThreadAndFullQueue_whenSubmit_thenRejectImmediately() throws Exception {
+        //given
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        willAnswer(invocation -> {
+            running.countDown();
+            release.await();
+            return true;
+        }).given(employeeService).deleteEmployee(1L);
+        CompletableFuture<Boolean> busy = employeeAsyncService.deleteEmployee(1L);
+        running.await(5, TimeUnit.SECONDS);
+        CompletableFuture<Boolean> queued = employeeAsyncService.deleteEmployee(2L);
+
+        //when, then
+        assertThatThrownBy(() -> employeeAsyncService.deleteEmployee(3L))
+                .isInstanceOf(TaskRejectedException.class);
+        release.countDown();
+        assertThat(busy.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isFalse();
+    }
+}
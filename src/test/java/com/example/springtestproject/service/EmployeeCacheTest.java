@@ -0,0 +1,158 @@
+package com.example.springtestproject.service;
+
+import com.example.springtestproject.model.Employee;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeCacheTest {
+
+    private EmployeeCache employeeCache;
+
+    private Employee employee;
+
+    private AtomicInteger loads;
+
+    @BeforeEach
+    public void setup(){
+        employeeCache = new EmployeeCache(100, Duration.ofMinutes(1));
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("John")
+                .lastName("Cena")
+                .email("cena@mail.ru")
+                .build();
+        loads = new AtomicInteger();
+    }
+
+    @DisplayName("CachedEmployeeSharedBetweenIdAndEmail")
+    @Test
+    public void givenEmployeeLoadedById_whenGetByEmail_thenServedFromCache(){
+        employeeCache.getById(1L, id -> load(employee));
+
+        Optional<Employee> byEmail = employeeCache.getByEmail("cena@mail.ru", email -> load(employee));
+
+        assertThat(byEmail).contains(employee);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @DisplayName("CachedEmployeeIsCopy")
+    @Test
+    public void givenCachedEmployee_whenCallerMutatesResult_thenCacheUnchanged(){
+        employeeCache.getById(1L, id -> load(employee)).get().setFirstName("Philip");
+
+        assertThat(employeeCache.getById(1L, id -> load(employee)).get().getFirstName()).isEqualTo("John");
+    }
+
+    @DisplayName("EvictRemovesIdAndEmail")
+    @Test
+    public void givenCachedEmployee_whenEvict_thenBothLookupsReload(){
+        employeeCache.getById(1L, id -> load(employee));
+
+        employeeCache.evict(1L);
+
+        assertThat(employeeCache.getByEmail("cena@mail.ru", email -> Optional.empty())).isEmpty();
+        assertThat(employeeCache.getById(1L, id -> Optional.empty())).isEmpty();
+    }
+
+    @DisplayName("InvalidateAllRemovesEverything")
+    @Test
+    public void givenCachedEmployee_whenInvalidateAll_thenBothLookupsReload(){
+        employeeCache.put(employee);
+
+        employeeCache.invalidateAll();
+
+        assertThat(employeeCache.peekById(1L)).isEmpty();
+        assertThat(employeeCache.getByEmail("cena@mail.ru", email -> Optional.empty())).isEmpty();
+    }
+
+    @DisplayName("LoadRacingWithWriteNotCached")
+    @Test
+    public void givenWriteDuringLoad_whenGetById_thenStaleRowNotCached(){
+        Employee updated = employee.toBuilder().firstName("Philip").build();
+
+        employeeCache.getById(1L, id -> {
+            employeeCache.put(updated);
+            return load(employee);
+        });
+
+        assertThat(employeeCache.getById(1L, id -> load(updated)).get().getFirstName()).isEqualTo("Philip");
+    }
+
+    @DisplayName("HitsAndMissesExposed")
+    @Test
+    public void givenRegistry_whenLookups_thenHitAndMissCountersUpdated(){
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        employeeCache.bindTo(registry);
+
+        employeeCache.getById(1L, id -> load(employee));
+        employeeCache.getById(1L, id -> load(employee));
+
+        assertThat(registry.get("cache.gets").tag("cache", "employeesById").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("cache", "employeesById").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @DisplayName("ConcurrentMissesShareOneLoad")
+    @Test
+    public void givenConcurrentMisses_whenGetByEmail_thenLoadedOnce() throws Exception{
+        //given
+        int callers = 8;
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        employeeCache.bindTo(registry);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        List<Future<Optional<Employee>>> results = new ArrayList<>();
+
+        //when
+        try {
+            for(int i = 0; i < callers; i++){
+                results.add(executor.submit(() -> employeeCache.getByEmail("cena@mail.ru", email -> {
+                    await(release);
+                    return load(employee);
+                })));
+            }
+            //let every caller reach the in-flight load before the database answers
+            Thread.sleep(200);
+            release.countDown();
+            for(Future<Optional<Employee>> result : results){
+                assertThat(result.get(5, TimeUnit.SECONDS)).contains(employee);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        //then
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(registry.get("employees.cache.loads.coalesced").tag("lookup", "email")
+                .functionCounter().count()).isEqualTo(callers - 1);
+    }
+
+    private static void await(CountDownLatch latch){
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Optional<Employee> load(Employee employee){
+        loads.incrementAndGet();
+        return Optional.of(employee);
+    }
+}
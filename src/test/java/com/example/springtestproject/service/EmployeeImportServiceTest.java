@@ -0,0 +1,135 @@
+package com.example.springtestproject.service;
+
+import com.example.springtestproject.model.Employee;
+import com.example.springtestproject.model.EmployeeFileFormat;
+import com.example.springtestproject.model.EmployeeView;
+import com.example.springtestproject.model.ImportReport;
+import com.example.springtestproject.repository.EmployeeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeImportServiceTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private EmployeeSearchIndex employeeSearchIndex = new EmployeeSearchIndex(2000);
+
+    @InjectMocks
+    private EmployeeImportService employeeImportService;
+
+    @BeforeEach
+    public void setup(){
+        ReflectionTestUtils.setField(employeeImportService, "chunkSize", 2);
+        ReflectionTestUtils.setField(employeeImportService, "maxErrors", 10);
+    }
+
+    @DisplayName("importCsvInChunks")
+    @Test
+    public void givenCsvRows_whenImportEmployees_thenSaveEveryChunkInItsOwnTransaction() throws Exception {
+        //given
+        given(employeeRepository.findExistingEmails(anyCollection())).willReturn(List.of());
+
+        //when
+        ImportReport report = employeeImportService.importEmployees(input("""
+                firstName,lastName,email
+                Philip,Dubrovskiy,dubrovskay.7830@mail.ru
+                John,Cena,test@mail.ru
+
+                Anna,Petrova,petrova@mail.ru
+                """), EmployeeFileFormat.CSV);
+
+        //then
+        assertThat(report.getRead()).isEqualTo(3);
+        assertThat(report.getImported()).isEqualTo(3);
+        assertThat(report.getChunks()).isEqualTo(2);
+        assertThat(report.getErrors()).isEmpty();
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(employeeRepository, times(2)).saveAll(any());
+        assertThat(employeeSearchIndex.search("petrova", 10)).extracting(EmployeeView::email).containsExactly("petrova@mail.ru");
+    }
+
+    @DisplayName("importRejectsInvalidAndDuplicateRows")
+    @Test
+    public void givenInvalidAndDuplicateRows_whenImportEmployees_thenReportThemAndSaveTheRest() throws Exception {
+        //given
+        given(employeeRepository.findExistingEmails(anyCollection())).willReturn(List.of("test@mail.ru"));
+        ReflectionTestUtils.setField(employeeImportService, "chunkSize", 10);
+
+        //when
+        ImportReport report = employeeImportService.importEmployees(input("""
+                {"firstName":"Philip","lastName":"Dubrovskiy","email":"dubrovskay.7830@mail.ru"}
+                {"firstName":"Philip","lastName":"Dubrovskiy","email":"dubrovskay.7830@mail.ru"}
+                {"firstName":"John","lastName":"Cena","email":"test@mail.ru"}
+                {"firstName":"","lastName":"Petrova","email":"petrova@mail.ru"}
+                {"firstName":"Anna","lastName":"Petrova","email":"petrova"}
+                {"firstName":
+                """), EmployeeFileFormat.NDJSON);
+
+        //then
+        assertThat(report.getRead()).isEqualTo(6);
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getRejected()).isEqualTo(5);
+        assertThat(report.getErrors()).extracting(ImportReport.RowError::row).containsExactly(2L, 4L, 5L, 6L, 3L);
+        assertThat(report.isCompleted()).isTrue();
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Employee>> saved = ArgumentCaptor.forClass(List.class);
+        verify(employeeRepository).saveAll(saved.capture());
+        assertThat(saved.getValue()).extracting(Employee::getEmail).containsExactly("dubrovskay.7830@mail.ru");
+    }
+
+    @DisplayName("importCapsReportedErrors")
+    @Test
+    public void givenMoreErrorsThanLimit_whenImportEmployees_thenTruncateErrorList() throws Exception {
+        //given
+        ReflectionTestUtils.setField(employeeImportService, "maxErrors", 1);
+
+        //when
+        ImportReport report = employeeImportService.importEmployees(input("""
+                firstName,lastName,email
+                ,Dubrovskiy,dubrovskay.7830@mail.ru
+                John,,test@mail.ru
+                """), EmployeeFileFormat.CSV);
+
+        //then
+        assertThat(report.getRejected()).isEqualTo(2);
+        assertThat(report.getErrors()).hasSize(1);
+        assertThat(report.isErrorsTruncated()).isTrue();
+    }
+
+    private static InputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
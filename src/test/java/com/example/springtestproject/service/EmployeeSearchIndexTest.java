@@ -0,0 +1,169 @@
+package com.example.springtestproject.service;
+
+import com.example.springtestproject.model.EmployeeView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeSearchIndexTest {
+
+    private EmployeeSearchIndex index;
+
+    @BeforeEach
+    public void setup(){
+        index = new EmployeeSearchIndex(2000);
+        index.load(rows -> {
+            rows.accept(new EmployeeView(1L, "John", "Cena", "cena@mail.ru", 0));
+            rows.accept(new EmployeeView(2L, "Philip", "Dubrovskiy", "dubrovskay.7830@mail.ru", 0));
+            rows.accept(new EmployeeView(3L, "Johnny", "Smith", "smith@mail.ru", 0));
+            rows.accept(new EmployeeView(4L, "Anna", "Johnson", "anna.johnson@gmail.com", 0));
+        });
+    }
+
+    @DisplayName("WholeWordsRankAbovePrefixesAndInfixes")
+    @Test
+    public void givenQueryWord_whenSearch_thenRankedByHowWellItMatches(){
+        //when
+        List<EmployeeView> employees = index.search("john", 10);
+
+        //then
+        assertThat(employees).extracting(EmployeeView::id).containsExactly(1L, 3L, 4L);
+    }
+
+    @DisplayName("InfixMatchesInsideWords")
+    @Test
+    public void givenPartOfWord_whenSearch_thenMatchedCaseInsensitive(){
+        //when
+        List<EmployeeView> employees = index.search("ROVSK", 10);
+
+        //then
+        assertThat(employees).extracting(EmployeeView::id).containsExactly(2L);
+    }
+
+    @DisplayName("ShortWordsOnlyMatchWordStarts")
+    @Test
+    public void givenOneOrTwoCharacters_whenSearch_thenOnlyWordPrefixesMatch(){
+        //when
+        List<EmployeeView> byTwo = index.search("ph", 10);
+        List<EmployeeView> insideWord = index.search("oh", 10);
+
+        //then
+        assertThat(byTwo).extracting(EmployeeView::id).containsExactly(2L);
+        assertThat(insideWord).isEmpty();
+    }
+
+    @DisplayName("EveryQueryWordMustMatch")
+    @Test
+    public void givenSeveralWords_whenSearch_thenOnlyEmployeesMatchingAllReturned(){
+        //when
+        List<EmployeeView> employees = index.search("jo smi", 10);
+        List<EmployeeView> acrossFields = index.search("anna gmail", 10);
+
+        //then
+        assertThat(employees).extracting(EmployeeView::id).containsExactly(3L);
+        assertThat(acrossFields).extracting(EmployeeView::id).containsExactly(4L);
+    }
+
+    @DisplayName("LimitKeepsBestResults")
+    @Test
+    public void givenLimit_whenSearch_thenBestLimitReturned(){
+        //when
+        List<EmployeeView> employees = index.search("mail", 1);
+
+        //then
+        assertThat(employees).extracting(EmployeeView::id).containsExactly(1L);
+        assertThat(index.search("   ", 10)).isEmpty();
+    }
+
+    @DisplayName("WritesKeepIndexCurrent")
+    @Test
+    public void givenUpdateAndDelete_whenSearch_thenLatestVersionsFound(){
+        //when
+        index.put(new EmployeeView(1L, "Johann", "Cena", "cena@mail.ru", 1));
+        index.put(new EmployeeView(1L, "John", "Cena", "cena@mail.ru", 0));
+        index.remove(3L);
+        index.put(new EmployeeView(5L, "Jon", "Snow", "snow@mail.ru", 0));
+
+        //then
+        assertThat(index.search("john", 10)).extracting(EmployeeView::id).containsExactly(4L);
+        assertThat(index.search("johann", 10)).extracting(EmployeeView::firstName).containsExactly("Johann");
+        assertThat(index.search("snow", 10)).extracting(EmployeeView::id).containsExactly(5L);
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @DisplayName("UpdatedEmployeeKeepsItsTieBreak")
+    @Test
+    public void givenLowIdUpdatedAfterHigherId_whenSearch_thenEqualScoresStillLowerIdFirst(){
+        //given
+        index.put(new EmployeeView(5L, "John", "Snow", "snow@mail.ru", 0));
+
+        //when
+        index.put(new EmployeeView(1L, "John", "Cena", "john.cena@mail.ru", 1));
+
+        //then
+        assertThat(index.search("john", 1)).extracting(EmployeeView::id).containsExactly(1L);
+        assertThat(index.search("john", 2)).extracting(EmployeeView::id).containsExactly(1L, 5L);
+        assertThat(index.search("john", 10)).extracting(EmployeeView::id).containsExactly(1L, 5L, 3L, 4L);
+    }
+
+    @DisplayName("RemovedDuringLoadStaysRemoved")
+    @Test
+    public void givenDeleteWhileLoading_whenSnapshotRowArrives_thenNotIndexed(){
+        //given
+        index = new EmployeeSearchIndex(2000);
+
+        //when
+        index.load(rows -> {
+            index.remove(7L);
+            rows.accept(new EmployeeView(7L, "Deleted", "Meanwhile", "deleted@mail.ru", 0));
+            rows.accept(new EmployeeView(8L, "Kept", "Row", "kept@mail.ru", 0));
+        });
+
+        //then
+        assertThat(index.search("deleted", 10)).isEmpty();
+        assertThat(index.search("kept", 10)).extracting(EmployeeView::id).containsExactly(8L);
+    }
+
+    @DisplayName("CompactionDropsTombstones")
+    @Test
+    public void givenManyUpdates_whenCompacted_thenSearchUnchanged(){
+        //when
+        index.remove(1L);
+        LongStream.rangeClosed(1, 3000).forEach(version ->
+                index.put(new EmployeeView(2L, "Philip", "Dubrovskiy", "dubrovskay.7830@mail.ru", version)));
+
+        //then
+        assertThat(index.search("dubrovskiy", 10)).extracting(EmployeeView::version).containsExactly(3000L);
+        assertThat(index.search("jo", 10)).extracting(EmployeeView::id).containsExactly(3L, 4L);
+        assertThat(index.search("cena", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.estimatedBytes()).isPositive();
+    }
+
+    @DisplayName("WritesDuringCompactionKept")
+    @Test
+    public void givenWritesWhileCompacting_whenCompacted_thenNoneLost() throws Exception{
+        //given
+        Thread updates = new Thread(() -> LongStream.rangeClosed(1, 20000).forEach(version ->
+                index.put(new EmployeeView(2L, "Philip", "Dubrovskiy", "dubrovskay.7830@mail.ru", version))));
+
+        //when
+        updates.start();
+        LongStream.rangeClosed(100, 2099).forEach(id ->
+                index.put(new EmployeeView(id, "Bulk", "Row" + id, "row" + id + "@mail.ru", 0)));
+        LongStream.rangeClosed(100, 1099).forEach(index::remove);
+        index.put(new EmployeeView(3L, "Johnny", "Smith", "johnny.smith@mail.ru", 1));
+        updates.join();
+
+        //then
+        assertThat(index.search("dubrovskiy", 10)).extracting(EmployeeView::version).containsExactly(20000L);
+        assertThat(index.search("bulk", 2000)).hasSize(1000).extracting(EmployeeView::id).startsWith(1100L);
+        assertThat(index.search("johnny", 10)).extracting(EmployeeView::email).containsExactly("johnny.smith@mail.ru");
+        assertThat(index.size()).isEqualTo(1004);
+    }
+}
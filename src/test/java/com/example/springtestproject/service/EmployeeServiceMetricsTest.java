@@ -0,0 +1,83 @@
+package com.example.springtestproject.service;
+
+import com.example.springtestproject.model.Employee;
+import com.example.springtestproject.repository.EmployeeRepository;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeServiceMetricsTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Spy
+    private EmployeeCache employeeCache = new EmployeeCache(100, Duration.ofMinutes(1));
+
+    @InjectMocks
+    private EmployeeServiceImpl employeeServiceImpl;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private EmployeeService employeeService;
+
+    @BeforeEach
+    public void setup(){
+        meterRegistry = new SimpleMeterRegistry();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(employeeServiceImpl);
+        proxyFactory.addAspect(new TimedAspect(meterRegistry));
+        employeeService = proxyFactory.getProxy();
+    }
+
+    @DisplayName("ServiceTimerRecorded")
+    @Test
+    public void givenEmployee_whenGetEmployeeById_thenTimerRegisteredAndUpdated(){
+        //given
+        given(employeeRepository.findById(1L))
+                .willReturn(Optional.of(Employee.builder().id(1L).email("cena@mail.ru").build()));
+
+        //when
+        employeeService.getEmployeeById(1L);
+        employeeService.getEmployeeById(1L);
+
+        Timer timer = meterRegistry.get(EmployeeServiceImpl.TIMER_NAME)
+                .tag("method", "getEmployeeById")
+                .tag("exception", "none")
+                .timer();
+        assertThat(timer.count()).isEqualTo(2);
+        assertThat(timer.takeSnapshot().percentileValues()).hasSize(3);
+    }
+
+    @DisplayName("ServiceErrorCounted")
+    @Test
+    public void givenRepositoryFailure_whenGetEmployeeById_thenErrorTagged(){
+        //given
+        given(employeeRepository.findById(1L))
+                .willThrow(new IllegalStateException("database down"));
+
+        //when
+        assertThrows(IllegalStateException.class, () -> employeeService.getEmployeeById(1L));
+
+        assertThat(meterRegistry.get(EmployeeServiceImpl.TIMER_NAME)
+                .tag("method", "getEmployeeById")
+                .tag("exception", "IllegalStateException")
+                .timer().count()).isEqualTo(1);
+    }
+}
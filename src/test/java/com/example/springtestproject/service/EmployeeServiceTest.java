@@ -2,23 +2,36 @@ package com.example.springtestproject.service;
 
 import com.example.springtestproject.exception.ResourceNotFoundException;
 import com.example.springtestproject.model.Employee;
+import com.example.springtestproject.model.EmployeePage;
+import com.example.springtestproject.model.EmployeePatch;
+import com.example.springtestproject.model.EmployeeSummary;
+import com.example.springtestproject.model.EmployeeView;
 import com.example.springtestproject.repository.EmployeeRepository;
 import static org.assertj.core.api.Assertions.assertThat;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.hibernate.exception.ConstraintViolationException;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.Mockito.*;
 
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.sql.SQLException;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,9 +41,17 @@ public class EmployeeServiceTest {
     @Mock
     private EmployeeRepository employeeRepository;
 
+    @Spy
+    private EmployeeCache employeeCache = new EmployeeCache(100, Duration.ofMinutes(1));
+
+    @Spy
+    private EmployeeSearchIndex employeeSearchIndex = new EmployeeSearchIndex(2000);
+
     @InjectMocks
     private EmployeeServiceImpl employeeService;
 
+    private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
     private Employee employee;
 
     private Employee employee2;
@@ -57,56 +78,196 @@ public class EmployeeServiceTest {
     @Test
     public void givenEmployeeObject_whenSaveEmployee_thenReturnEmployeeObject(){
         //given
-        given(employeeRepository.findByEmail(employee.getEmail()))
-                .willReturn(Optional.empty());
-        given(employeeRepository.save(employee)).willReturn(employee);
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
 
         //when
         Employee savedEmployee = employeeService.saveEmployee(employee);
 
         assertThat(savedEmployee).isNotNull();
+        verify(employeeRepository, never()).findByEmail(any());
     }
 
     @DisplayName("ThrowEmployeeMethod")
     @Test
     public void givenExistingEmail_whenSaveEmployee_thenThrowException(){
         //given
-        given(employeeRepository.findByEmail(employee.getEmail()))
-                .willReturn(Optional.of(employee));
+        given(employeeRepository.saveAndFlush(employee))
+                .willThrow(new DataIntegrityViolationException("duplicate", new ConstraintViolationException(
+                        "duplicate", new SQLException(), "employees.uk_employees_email")));
 
         org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class, () -> {
             employeeService.saveEmployee(employee);
         });
         //then
-        verify(employeeRepository, never()).save(any(Employee.class));
+        verify(employeeRepository, never()).findByEmail(any());
+    }
+
+    @DisplayName("RethrowOtherConstraintViolation")
+    @Test
+    public void givenOtherConstraintViolation_whenSaveEmployee_thenRethrowException(){
+        //given
+        given(employeeRepository.saveAndFlush(employee))
+                .willThrow(new DataIntegrityViolationException("not null", new ConstraintViolationException(
+                        "not null", new SQLException(), "first_name")));
+
+        org.junit.jupiter.api.Assertions.assertThrows(DataIntegrityViolationException.class, () -> {
+            employeeService.saveEmployee(employee);
+        });
+    }
+
+    @DisplayName("SaveAllEmployees")
+    @Test
+    public void givenEmployeesList_whenSaveAllEmployees_thenCheckEmailsOnceAndSaveAll(){
+        //given
+        employee2.setEmail("test@mail.ru");
+        List<Employee> employees = List.of(employee, employee2);
+        given(employeeRepository.findExistingEmails(any()))
+                .willReturn(List.of());
+        given(employeeRepository.saveAllAndFlush(employees)).willReturn(employees);
+
+        //when
+        List<Employee> savedEmployees = employeeService.saveAllEmployees(employees);
+
+        assertThat(savedEmployees).hasSize(2);
+        verify(employeeRepository, times(1)).findExistingEmails(any());
+        verify(employeeRepository, never()).findByEmail(any());
+    }
+
+    @DisplayName("ThrowSaveAllEmployeesDuplicateInRequest")
+    @Test
+    public void givenDuplicateEmailsInRequest_whenSaveAllEmployees_thenThrowException(){
+        //given
+        given(employeeRepository.findExistingEmails(any()))
+                .willReturn(List.of());
+
+        org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+            employeeService.saveAllEmployees(List.of(employee, employee2));
+        });
+        //then
+        verify(employeeRepository, never()).saveAllAndFlush(any());
+    }
+
+    @DisplayName("ThrowSaveAllEmployeesExistingEmail")
+    @Test
+    public void givenExistingEmail_whenSaveAllEmployees_thenThrowException(){
+        //given
+        given(employeeRepository.findExistingEmails(any()))
+                .willReturn(List.of(employee.getEmail()));
+
+        org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+            employeeService.saveAllEmployees(List.of(employee));
+        });
+        //then
+        verify(employeeRepository, never()).saveAllAndFlush(any());
     }
 
     @DisplayName("GetAllEmployee")
     @Test
     public void givenEmployeesList_whenGetAllEmployees_thenReturnEmployeesList(){
         //given
-        given(employeeRepository.findAll())
-                .willReturn(List.of(employee, employee2));
+        given(employeeRepository.findAllViews())
+                .willReturn(List.of(EmployeeView.from(employee), EmployeeView.from(employee2)));
 
         //when
-        List<Employee> employeeList = employeeService.getAllEmployee();
+        List<EmployeeView> employeeList = employeeService.getAllEmployee();
 
-        assertThat(employeeList).isEqualTo(List.of(employee, employee2));
+        assertThat(employeeList).containsExactly(EmployeeView.from(employee), EmployeeView.from(employee2));
     }
 
     @DisplayName("GetEmptyListOfEmployee")
     @Test
     public void givenEmployeesEmptyList_whenGetAllEmployees_thenReturnEmptyList(){
         //given
-        given(employeeRepository.findAll())
+        given(employeeRepository.findAllViews())
                 .willReturn(List.of());
 
         //when
-        List<Employee> employeeList = employeeService.getAllEmployee();
+        List<EmployeeView> employeeList = employeeService.getAllEmployee();
 
         assertThat(employeeList).isEmpty();
     }
 
+    @DisplayName("GetEmployeesPage")
+    @Test
+    public void givenMoreRowsThanLimit_whenGetEmployeesPage_thenReturnPageAndNextCursor(){
+        //given
+        Employee employee3 = Employee.builder()
+                .id(3L)
+                .firstName("Ivan")
+                .lastName("Ivanov")
+                .email("ivanov@mail.ru")
+                .build();
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3), EmployeeView.class))
+                .willReturn(List.of(EmployeeView.from(employee), EmployeeView.from(employee2), EmployeeView.from(employee3)));
+
+        //when
+        EmployeePage page = employeeService.getEmployeesPage(0L, 2);
+
+        assertThat(page.getContent()).containsExactly(EmployeeView.from(employee), EmployeeView.from(employee2));
+        assertThat(page.getNextCursor()).isEqualTo(employee2.getId());
+    }
+
+    @DisplayName("GetLastEmployeesPage")
+    @Test
+    public void givenFewerRowsThanLimit_whenGetEmployeesPage_thenReturnPageWithoutNextCursor(){
+        //given
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(1L, Limit.of(3), EmployeeView.class))
+                .willReturn(List.of(EmployeeView.from(employee2)));
+
+        //when
+        EmployeePage page = employeeService.getEmployeesPage(1L, 2);
+
+        assertThat(page.getContent()).containsExactly(EmployeeView.from(employee2));
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @DisplayName("SearchEmployeesByName")
+    @Test
+    public void givenOversizedPage_whenSearchEmployeesByName_thenPageSizeBounded(){
+        //given
+        given(employeeRepository.searchByName("Ce", "", PageRequest.of(0, EmployeeService.MAX_PAGE_SIZE)))
+                .willReturn(List.of(projectionFactory.createProjection(EmployeeSummary.class, employee)));
+
+        //when
+        List<EmployeeView> employees = employeeService.searchEmployeesByName("Ce", "", 0, Integer.MAX_VALUE);
+
+        assertThat(employees).containsExactly(EmployeeView.from(employee));
+    }
+
+    @DisplayName("SearchEmployeesByNameWithWildcards")
+    @Test
+    public void givenPrefixesWithLikeWildcards_whenSearchEmployeesByName_thenWildcardsEscaped(){
+        //given
+        employee.setFirstName("100%!");
+        employee.setLastName("C_na");
+        given(employeeRepository.searchByName("C!_", "100!%!!", PageRequest.of(0, 10)))
+                .willReturn(List.of(projectionFactory.createProjection(EmployeeSummary.class, employee)));
+
+        //when
+        List<EmployeeView> employees = employeeService.searchEmployeesByName("C_", "100%!", 0, 10);
+
+        assertThat(employees).containsExactly(EmployeeView.from(employee));
+    }
+
+    @DisplayName("SearchEmployeesAfterWrites")
+    @Test
+    public void givenSavedUpdatedAndDeletedEmployees_whenSearchEmployees_thenIndexFollowsWrites(){
+        //given
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
+        given(employeeRepository.saveAndFlush(employee2)).willReturn(employee2);
+        given(employeeRepository.deleteEmployeeById(1L)).willReturn(1);
+        employeeService.saveEmployee(employee);
+        employeeService.updateEmployee(employee2);
+        List<EmployeeView> beforeDelete = employeeService.searchEmployees("dubrovskay", Integer.MAX_VALUE);
+
+        //when
+        employeeService.deleteEmployee(1L);
+
+        assertThat(beforeDelete).extracting(EmployeeView::id).containsExactly(1L, 2L);
+        assertThat(employeeService.searchEmployees("dubrovskay", 10)).extracting(EmployeeView::id).containsExactly(2L);
+        verify(employeeRepository, never()).searchByName(any(), any(), any());
+    }
+
     @DisplayName("GetEmployeeById")
     @Test
     public void givenEmployeesId_whenGetEmployeeById_thenReturnEmployee(){
@@ -121,11 +282,46 @@ public class EmployeeServiceTest {
         assertThat(savedEmployee).isEqualTo(employee);
     }
 
+    @DisplayName("GetEmployeeByIdCached")
+    @Test
+    public void givenCachedEmployee_whenGetEmployeeById_thenRepositoryCalledOnce(){
+        //given
+        given(employeeRepository.findById(1L))
+                .willReturn(Optional.of(employee));
+
+        //when
+        employeeService.getEmployeeById(employee.getId());
+        Employee savedEmployee = employeeService.getEmployeeById(employee.getId()).get();
+
+        assertThat(savedEmployee).isEqualTo(employee);
+        verify(employeeRepository, times(1)).findById(1L);
+    }
+
+    @DisplayName("GetEmployeeByEmailAfterUpdate")
+    @Test
+    public void givenUpdatedEmail_whenGetEmployeeByEmail_thenOldEmailNotServedFromCache(){
+        //given
+        given(employeeRepository.findById(1L))
+                .willReturn(Optional.of(employee));
+        given(employeeRepository.findByEmail("dubrovskay.7830@mail.ru"))
+                .willReturn(Optional.empty());
+        Employee employeeToUpdate = employeeService.getEmployeeById(1L).get();
+        employeeToUpdate.setEmail("test@mail.ru");
+        given(employeeRepository.saveAndFlush(employeeToUpdate)).willReturn(employeeToUpdate);
+
+        //when
+        employeeService.updateEmployee(employeeToUpdate);
+
+        assertThat(employeeService.getEmployeeByEmail("dubrovskay.7830@mail.ru")).isEmpty();
+        assertThat(employeeService.getEmployeeByEmail("test@mail.ru")).contains(employeeToUpdate);
+        verify(employeeRepository, never()).findByEmail("test@mail.ru");
+    }
+
     @DisplayName("UpdateEmployee")
     @Test
     public void givenEmployee_whenUpdateEmployee_thenReturnUpdateEmployee(){
         //given
-        given(employeeRepository.save(employee))
+        given(employeeRepository.saveAndFlush(employee))
                 .willReturn(employee);
         employee.setEmail("test@mail.ru");
         employee.setFirstName("Philip");
@@ -137,17 +333,101 @@ public class EmployeeServiceTest {
     }
 
 
+    @DisplayName("PatchEmployee")
+    @Test
+    public void givenPartialPatch_whenPatchEmployee_thenOnlySentFieldsChanged(){
+        //given
+        given(employeeRepository.findById(1L))
+                .willReturn(Optional.of(employee));
+        EmployeePatch patch = EmployeePatch.builder()
+                .firstName("Philip")
+                .version(0L)
+                .build();
+
+        //when
+        Employee patchedEmployee = employeeService.patchEmployee(1L, patch).get();
+
+        assertThat(patchedEmployee.getFirstName()).isEqualTo("Philip");
+        assertThat(patchedEmployee.getLastName()).isEqualTo("Cena");
+        assertThat(patchedEmployee.getEmail()).isEqualTo("dubrovskay.7830@mail.ru");
+        verify(employeeRepository, never()).save(any(Employee.class));
+        verify(employeeRepository, times(1)).flush();
+    }
+
+    @DisplayName("PatchEmployeeStaleVersion")
+    @Test
+    public void givenStaleVersion_whenPatchEmployee_thenThrowOptimisticLockingFailure(){
+        //given
+        employee.setVersion(3L);
+        given(employeeRepository.findById(1L))
+                .willReturn(Optional.of(employee));
+        EmployeePatch patch = EmployeePatch.builder()
+                .firstName("Philip")
+                .version(2L)
+                .build();
+
+        org.junit.jupiter.api.Assertions.assertThrows(ObjectOptimisticLockingFailureException.class, () -> {
+            employeeService.patchEmployee(1L, patch);
+        });
+        //then
+        assertThat(employee.getFirstName()).isEqualTo("John");
+    }
+
+    @DisplayName("PatchMissingEmployee")
+    @Test
+    public void givenNotExistEmployeeId_whenPatchEmployee_thenReturnEmpty(){
+        //given
+        given(employeeRepository.findById(2L))
+                .willReturn(Optional.empty());
+
+        //when
+        Optional<Employee> patchedEmployee = employeeService.patchEmployee(2L, new EmployeePatch());
+
+        assertThat(patchedEmployee).isEmpty();
+    }
+
     @DisplayName("DeleteEmployee")
     @Test
     public void givenEmployee_whenDeleteEmployee_thenNothing(){
         //given
         long employeeId = 1L;
-        willDoNothing().given(employeeRepository).deleteById(1L);
+        given(employeeRepository.deleteEmployeeById(employeeId)).willReturn(1);
+
+        //when
+        boolean deleted = employeeService.deleteEmployee(employeeId);
+
+        assertThat(deleted).isTrue();
+        verify(employeeRepository, never()).findById(any());
+    }
+
+    @DisplayName("DeleteMissingEmployee")
+    @Test
+    public void givenNotExistEmployeeId_whenDeleteEmployee_thenReturnFalse(){
+        //given
+        given(employeeRepository.deleteEmployeeById(2L)).willReturn(0);
+
+        //when
+        boolean deleted = employeeService.deleteEmployee(2L);
+
+        assertThat(deleted).isFalse();
+    }
+
+    @DisplayName("DeleteEmployees")
+    @Test
+    public void givenEmployeeIds_whenDeleteEmployees_thenSingleStatementAndCacheEvicted(){
+        //given
+        given(employeeRepository.findById(1L))
+                .willReturn(Optional.of(employee));
+        employeeService.getEmployeeById(1L);
+        given(employeeRepository.deleteEmployeesByIdIn(List.of(1L, 2L))).willReturn(2);
+        given(employeeRepository.findById(1L))
+                .willReturn(Optional.empty());
 
         //when
-        employeeService.deleteEmployee(employeeId);
+        int deleted = employeeService.deleteEmployees(List.of(1L, 2L));
 
-        verify(employeeRepository, times(1)).deleteById(employeeId);
+        assertThat(deleted).isEqualTo(2);
+        assertThat(employeeService.getEmployeeById(1L)).isEmpty();
     }
 }
 
@@ -0,0 +1,132 @@
+package com.example.springtestproject.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private SingleFlight<Long, String> singleFlight;
+
+    private AtomicInteger loads;
+
+    private CountDownLatch release;
+
+    @BeforeEach
+    public void setup(){
+        singleFlight = new SingleFlight<>();
+        loads = new AtomicInteger();
+        release = new CountDownLatch(1);
+    }
+
+    @DisplayName("ConcurrentCallsShareOneLoad")
+    @Test
+    public void givenConcurrentCallers_whenExecuteSameKey_thenLoaderCalledOnce() throws Exception{
+        //given
+        Function<Long, String> loader = id -> {
+            loads.incrementAndGet();
+            await(release);
+            return "employee-" + id;
+        };
+
+        //when
+        List<String> results = new ArrayList<>();
+        for(Future<String> result : runConcurrently(1L, loader)){
+            results.add(result.get(5, TimeUnit.SECONDS));
+        }
+
+        //then
+        assertThat(results).hasSize(CALLERS).containsOnly("employee-1");
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(singleFlight.requests()).isEqualTo(CALLERS);
+        assertThat(singleFlight.coalesced()).isEqualTo(CALLERS - 1);
+    }
+
+    @DisplayName("LoaderExceptionSharedWithFollowers")
+    @Test
+    public void givenFailingLoader_whenExecuteConcurrently_thenEveryCallerGetsException() throws Exception{
+        //given
+        Function<Long, String> loader = id -> {
+            loads.incrementAndGet();
+            await(release);
+            throw new IllegalStateException("database down");
+        };
+
+        //when
+        List<Future<String>> results = runConcurrently(1L, loader);
+
+        //then
+        for(Future<String> result : results){
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @DisplayName("CompletedLoadNotReused")
+    @Test
+    public void givenCompletedLoad_whenExecuteAgain_thenLoadsAgain(){
+        //given
+        singleFlight.execute(1L, id -> "employee-" + loads.incrementAndGet());
+
+        //when
+        String second = singleFlight.execute(1L, id -> "employee-" + loads.incrementAndGet());
+
+        //then
+        assertThat(second).isEqualTo("employee-2");
+        assertThat(singleFlight.coalesced()).isZero();
+    }
+
+    @DisplayName("DifferentKeysNotCoalesced")
+    @Test
+    public void givenDifferentKeys_whenExecute_thenEachLoaded(){
+        singleFlight.execute(1L, id -> "employee-" + id);
+        singleFlight.execute(2L, id -> "employee-" + id);
+
+        assertThat(singleFlight.requests()).isEqualTo(2);
+        assertThat(singleFlight.coalesced()).isZero();
+    }
+
+    private List<Future<String>> runConcurrently(long key, Function<Long, String> loader) throws InterruptedException{
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        List<Future<String>> results = new ArrayList<>();
+        try {
+            for(int i = 0; i < CALLERS; i++){
+                results.add(executor.submit(() -> singleFlight.execute(key, loader)));
+            }
+            //let every caller reach the in-flight load before it completes
+            Thread.sleep(200);
+            release.countDown();
+            executor.shutdown();
+            assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
+    private static void await(CountDownLatch latch){
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
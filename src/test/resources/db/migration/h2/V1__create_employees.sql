@@ -0,0 +1,14 @@
+-- embedded counterpart of mysql/V1__create_employees.sql for SchemaMigrationTests, test classpath only; H2 has real sequences
+create sequence employee_seq start with 1 increment by 50;
+
+create table employees (
+    id bigint not null,
+    version bigint not null,
+    email varchar(255) not null,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    primary key (id),
+    constraint uk_employees_email unique (email)
+);
+
+create index idx_employees_last_first on employees (last_name, first_name);